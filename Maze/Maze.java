@@ -1,8 +1,7 @@
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Random;
 import tester.*;
 import javalib.impworld.*;
@@ -13,7 +12,7 @@ import javalib.worldimages.*;
 class Vertex {
   int x;
   int y;
-  Color color;
+  byte state; // how this cell is drawn, one of the MazePalette states
   Vertex top;
   Vertex right;
   Vertex left;
@@ -23,14 +22,15 @@ class Vertex {
   boolean rightEdge;
   boolean leftEdge;
   int size;
-  ArrayList<Edge> outEdges = new ArrayList<Edge>(); // adj list
+  int visitedMark; // the search epoch this vertex was last visited in
+  Vertex cameFrom; // the vertex the search reached this one from, valid once it is queued
 
   // the constructor
-  Vertex(int x, int y, Color color) {
+  Vertex(int x, int y, byte state) {
     this.size = Graph.OFFSET;
     this.x = x * this.size;
     this.y = y * this.size;
-    this.color = color;
+    this.state = state;
     this.top = null;
     this.right = null;
     this.left = null;
@@ -65,22 +65,23 @@ class Vertex {
     v.top = this;
   }
 
-  // EFFECT: adds an edge between this and the given vertex
-  void addEdge(Vertex v, Random random) {
-    if (v != null) {
-      this.outEdges.add(new Edge(this, v, random));
-    }
+  // EFFECT: gives this vertex the given state and puts back all four of its walls
+  void reset(byte state) {
+    this.state = state;
+    this.topEdge = true;
+    this.bottomEdge = true;
+    this.rightEdge = true;
+    this.leftEdge = true;
   }
 
-  // EFFECT: adds an edge between this and bottom and right to outEdges
-  void initEdges(Random rand) {
-    this.addEdge(this.right, rand);
-    this.addEdge(this.bottom, rand);
+  // the color this vertex is drawn in
+  Color color() {
+    return MazePalette.colorOf(this.state);
   }
 
   // renders this vertex
   WorldImage draw() {
-    return new RectangleImage(this.size, this.size, OutlineMode.SOLID, this.color);
+    return new RectangleImage(this.size, this.size, OutlineMode.SOLID, this.color());
   }
 
   // EFFECT: places this cell on a scene
@@ -116,30 +117,12 @@ class Edge {
   Vertex from;
   Vertex to;
   int weight;
-  Random rand;
-
-  // Constructor with seeded random value for testing
-  Edge(Vertex from, Vertex to, Random rand) {
-    this.from = from;
-    this.to = to;
-    this.rand = rand;
-    this.weight = this.rand.nextInt(10000);
-  }
 
   // the constructor
-  Edge(Vertex from, Vertex to) {
+  Edge(Vertex from, Vertex to, int weight) {
     this.from = from;
     this.to = to;
-    this.rand = new Random();
-    this.weight = this.rand.nextInt(10000);
-  }
-}
-
-//Compares the weights of Edges
-//e2 comes before e1 if positive
-class WeightComparator implements Comparator<Edge> {
-  public int compare(Edge e1, Edge e2) {
-    return e1.weight - e2.weight;
+    this.weight = weight;
   }
 }
 
@@ -153,91 +136,94 @@ class Graph extends World {
   static int WIDTH;
   static int HEIGHT;
   Random rand;
-  HashMap<Vertex, Vertex> cameFromEdge = new HashMap<Vertex, Vertex>();
-  ArrayList<Vertex> visited = new ArrayList<Vertex>();
+  int epoch = 1; // a vertex is visited when its mark equals this, so a new epoch forgets all
+  int visitedCount;
   ArrayDeque<Vertex> worklist = new ArrayDeque<Vertex>();
-  ArrayList<Vertex> reconstructList = new ArrayList<Vertex>();
+  ArrayList<Vertex> reconstructList = new ArrayList<Vertex>(); // drawn from the back
   boolean bfs;
   boolean dfs;
+  MazeMetrics metrics = new MazeMetrics();
+  EdgeSource edges; // the edge weights, generated on demand from a seed
+  KruskalBuilder kruskal = new KruskalBuilder();
+  MazeGrid grid; // the passages of the maze
+  IMazeGenerator generator; // null to build the maze with kruskal and keep its edge order
+  MazeTree tree; // null until a path between two cells is asked for
+  MazeAnalytics analytics; // null until the maze is first measured
+  MazeDeadEndFiller filler; // null until dead ends are first filled
+  long tickBudget; // nanoseconds of steps to take per tick, or 0 to take one step per tick
+  static long DEFAULT_BUDGET = 8000000; // the budget the t key switches on
+  static int STEPS_PER_CLOCK = 16; // steps taken between reads of the clock
+  MazeRaster raster; // null to place every cell and wall as its own image
+  static int RASTER_CELLS = 2500; // mazes with more cells than this render through a raster
+  MazeViewport viewport; // null when the whole maze fits in the window
+  static int VIEWPORT_WIDTH = 1200; // mazes larger than this are shown through a viewport
+  static int VIEWPORT_HEIGHT = 800;
 
   // the constructor
   Graph(int cols, int rows, Random rand) {
+    this(cols, rows, rand, null);
+  }
+
+  // the constructor, carving the maze with the given generator
+  Graph(int cols, int rows, Random rand, IMazeGenerator generator) {
     Graph.ROWS = rows;
     Graph.COLS = cols;
     this.vertices = new ArrayList<Vertex>();
     this.generateVertices();
     this.rand = rand;
-    for (Vertex v : this.vertices) {
-      v.initEdges(this.rand);
-    }
+    this.edges = new EdgeSource(cols, rows, this.rand.nextLong());
+    this.grid = new MazeGrid(cols, rows);
     Graph.WIDTH = Graph.COLS * Graph.OFFSET;
     Graph.HEIGHT = Graph.ROWS * Graph.OFFSET;
-    this.mst = this.constructMST();
+    this.generator = generator;
+    if (this.generator == null) {
+      this.mst = this.constructMST();
+    }
+    else {
+      this.generator.generate(this.grid, this.edges.seed);
+      this.grid.reuseEdges(this.vertices, this.mst);
+    }
     this.setEdges();
     this.worklist.add(this.vertices.get(0));
     this.bfs = false;
     this.dfs = false;
-  }
-
-  // creates a list of all the edges in a given graph
-  ArrayList<Edge> getAllEdges() {
-    ArrayList<Edge> allEdges = new ArrayList<Edge>();
-
-    for (Vertex v : vertices) {
-      for (Edge e : v.outEdges) {
-        allEdges.add(e);
-      }
-    }
-    return allEdges;
-  }
-
-  // finds the ancestral representative of a given node
-  Vertex find(HashMap<Vertex, Vertex> representatives, Vertex vertex) {
-    if (representatives.get(vertex) == vertex) {
-      return vertex;
+    if (Graph.WIDTH > Graph.VIEWPORT_WIDTH || Graph.HEIGHT > Graph.VIEWPORT_HEIGHT) {
+      this.viewport = new MazeViewport(this.grid, Math.min(Graph.WIDTH, Graph.VIEWPORT_WIDTH),
+          Math.min(Graph.HEIGHT, Graph.VIEWPORT_HEIGHT), Graph.OFFSET);
     }
-    else {
-      return this.find(representatives, representatives.get(vertex));
+    else if (Graph.ROWS * Graph.COLS > Graph.RASTER_CELLS) {
+      this.raster = new MazeRaster(Graph.COLS, Graph.ROWS, Graph.OFFSET);
+      this.raster.paintAll(this.vertices);
     }
   }
 
-  // builds a minimum spanning tree
+  // builds a minimum spanning tree of the edge source, opening its edges in the grid
   // edges in the mst represent vertices with no edge between them
+  // only the edges of the tree are made into Edge objects
   ArrayList<Edge> constructMST() {
-    HashMap<Vertex, Vertex> representatives = new HashMap<Vertex, Vertex>();
-    ArrayList<Edge> worklist = new ArrayList<Edge>(this.getAllEdges());
-    worklist.sort(new WeightComparator());
-    ArrayList<Edge> mst = new ArrayList<Edge>();
-
-    // sets vertices and adds edges
-    for (Vertex v : this.vertices) {
-      representatives.put(v, v);
-    }
+    this.buildTree();
+    return this.kruskal.treeEdges(this.edges, this.vertices);
+  }
 
-    while (!worklist.isEmpty()) {
-      Edge e = worklist.remove(0); // get first from the worklist and remove it
-      // ancestral representative of from vertex
-      Vertex fromRep = this.find(representatives, e.from);
-      Vertex toRep = this.find(representatives, e.to); // ancestral representative of to vertex
-      if (fromRep != toRep) { // if they do not have the same representative
-        mst.add(e); // add to the minimum spanning tree
-        representatives.replace(this.find(representatives, toRep), fromRep); // union
-      }
-    }
-    return mst;
+  // EFFECT: builds the minimum spanning tree of the edge source into the grid
+  // and records how long it took
+  void buildTree() {
+    this.kruskal.build(this.edges, this.grid);
+    this.metrics.recordMst(this.kruskal.collectNanos, this.kruskal.sortNanos,
+        this.kruskal.unionFindNanos, this.kruskal.edgeCount, this.kruskal.treeSize);
   }
 
   // EFFECT: generates all the cells in a board
   void generateVertices() {
     for (int row = 0; row < Graph.ROWS; row++) {
       for (int col = 0; col < Graph.COLS; col++) {
-        Vertex v = new Vertex(col, row, Color.LIGHT_GRAY);
+        Vertex v = new Vertex(col, row, MazePalette.UNVISITED);
         if (row == 0 && col == 0) {
-          v.color = Color.GREEN;
+          v.state = MazePalette.START;
           this.vertices.add(v);
         }
         else if (this.vertices.size() == Graph.ROWS * Graph.COLS - 1) {
-          v.color = Color.MAGENTA;
+          v.state = MazePalette.GOAL;
           v.left(this.vertices.get(this.vertices.size() - 1));
           v.top(this.vertices.get(this.vertices.size() - Graph.COLS));
           this.vertices.add(v);
@@ -284,7 +270,7 @@ class Graph extends World {
   // to be called on tick
   // takes the next step to solving the maze
   void solve(Vertex v) {
-    if (this.visited.contains(v)) {
+    if (this.isVisited(v)) {
       // do nothing
     }
     else if (v == this.vertices.get(this.vertices.size() - 1)) {
@@ -292,8 +278,9 @@ class Graph extends World {
       this.reconstructList(v);
     }
     else {
-      this.visited.add(v);
-      v.color = new Color(150, 180, 255);
+      v.visitedMark = this.epoch;
+      this.visitedCount += 1;
+      this.mark(v, MazePalette.VISITED);
       this.addNeighbors(v);
     }
   }
@@ -316,38 +303,92 @@ class Graph extends World {
 
   // adds a single neighbor
   void addNeighbor(Vertex v, Vertex neighbor) {
-    if (!this.visited.contains(neighbor)) {
+    if (!this.isVisited(neighbor)) {
       if (this.bfs) {
         this.worklist.add(neighbor);
       }
       else {
         this.worklist.addFirst(neighbor);
       }
-      this.cameFromEdge.put(neighbor, v);
+      neighbor.cameFrom = v;
     }
   }
 
-  // generates a reconstruct list
+  // determines if the given vertex was visited by the current search
+  boolean isVisited(Vertex v) {
+    return v.visitedMark == this.epoch;
+  }
+
+  // EFFECT: forgets every visited vertex by starting a new epoch
+  void forgetVisited() {
+    if (this.epoch == Integer.MAX_VALUE) {
+      for (Vertex v : this.vertices) {
+        v.visitedMark = 0;
+      }
+      this.epoch = 0;
+    }
+    this.epoch += 1;
+    this.visitedCount = 0;
+  }
+
+  // generates a reconstruct list, from the vertex after the start to the given vertex
+  // so the given vertex is drawn first; it walks back iteratively since paths through
+  // large mazes are too long to recur on
   void reconstructList(Vertex v) {
-    Vertex from = this.cameFromEdge.get(v);
-    if (v != this.vertices.get(0)) {
-      this.reconstructList.add(v);
-      this.reconstructList(from);
+    int from = this.reconstructList.size();
+    for (Vertex at = v; at != this.vertices.get(0); at = at.cameFrom) {
+      this.reconstructList.add(at);
     }
+    Collections.reverse(this.reconstructList.subList(from, this.reconstructList.size()));
   }
 
-  // reconstructs the maze following the hashmap
+  // reconstructs the maze following the path the search came from
   void reconstruct() {
-    Vertex v = this.reconstructList.remove(0);
-    v.color = Color.blue;
+    Vertex v = this.reconstructList.remove(this.reconstructList.size() - 1);
+    this.mark(v, MazePalette.PATH);
     if (this.reconstructList.isEmpty()) {
-      this.vertices.get(0).color = Color.blue;
+      this.mark(this.vertices.get(0), MazePalette.PATH);
+    }
+  }
+
+  // EFFECT: changes the state of the given vertex, repainting it if there is a raster
+  void mark(Vertex v, byte state) {
+    v.state = state;
+    if (this.raster != null) {
+      this.raster.paintCell(v);
     }
   }
 
   @Override
   // updates the maze solution on tick
   public void onTick() {
+    long start = 0;
+    int visitedBefore = 0;
+    if (this.metrics.enabled) {
+      start = System.nanoTime();
+      visitedBefore = this.visitedCount;
+    }
+    if (this.tickBudget <= 0) {
+      this.step();
+    }
+    else {
+      long deadline = System.nanoTime() + this.tickBudget;
+      boolean more = true;
+      while (more && System.nanoTime() < deadline) {
+        for (int k = 0; more && k < Graph.STEPS_PER_CLOCK; k++) {
+          more = this.step();
+        }
+      }
+    }
+    if (this.metrics.enabled) {
+      this.metrics.recordSearch(start, this.worklist.size(), this.visitedCount,
+          this.visitedCount - visitedBefore);
+    }
+  }
+
+  // EFFECT: takes one step of the search and one step of drawing the solution
+  // returns true if there is more of either left to do
+  boolean step() {
     if (this.bfs || this.dfs) {
       if (!this.worklist.isEmpty()) {
         Vertex v = worklist.remove();
@@ -357,12 +398,18 @@ class Graph extends World {
     if (!this.reconstructList.isEmpty()) {
       this.reconstruct();
     }
+    return ((this.bfs || this.dfs) && !this.worklist.isEmpty())
+        || !this.reconstructList.isEmpty();
   }
 
   // handles key events
   // b - breadth first search
   // d - depth first search
+  // f - fill dead ends
   // r - reset
+  // m - print the search, render and spanning tree metrics
+  // t - switch between one step per tick and as many steps as fit in the tick budget
+  // arrow keys, + and -, o - pan, zoom and show the whole maze, for mazes in a viewport
   @Override
   public void onKeyEvent(String key) {
     if (key.equals("b")) {
@@ -372,27 +419,192 @@ class Graph extends World {
       this.dfs = true;
     }
     if (key.equals("r")) {
-      this.vertices = new ArrayList<Vertex>();
-      generateVertices();
-      for (Vertex v : this.vertices) {
-        v.initEdges(this.rand);
+      this.reset();
+    }
+    if (key.equals("f")) {
+      this.fillDeadEnds();
+    }
+    if (key.equals("t")) {
+      if (this.tickBudget > 0) {
+        this.tickBudget = 0;
       }
-      this.mst = this.constructMST();
-      this.setEdges();
-      this.cameFromEdge = new HashMap<Vertex, Vertex>();
-      this.visited = new ArrayList<Vertex>();
-      this.worklist = new ArrayDeque<Vertex>();
-      this.worklist.add(this.vertices.get(0));
-      this.bfs = false;
-      this.dfs = false;
+      else {
+        this.tickBudget = Graph.DEFAULT_BUDGET;
+      }
+    }
+    if (this.viewport != null) {
+      this.moveViewport(key);
+    }
+    if (key.equals("m")) {
+      System.out.print(this.metrics.report());
+    }
+  }
+
+  // EFFECT: builds a new maze of the same size into the vertices, edges and buffers
+  // this graph already has, and clears the search without visiting every vertex
+  void reset() {
+    this.resetVertices();
+    this.edges.seed = this.rand.nextLong();
+    if (this.generator == null) {
+      this.buildTree();
+      this.kruskal.reuseTreeEdges(this.edges, this.vertices, this.mst);
+    }
+    else {
+      this.generator.generate(this.grid, this.edges.seed);
+      this.grid.reuseEdges(this.vertices, this.mst);
+    }
+    this.setEdges();
+    this.restartSearch();
+  }
+
+  // EFFECT: shows the given cached maze and starts drawing its solution right away,
+  // without generating or searching
+  void load(MazeSolution solution) {
+    if (solution.cols != this.grid.cols || solution.rows != this.grid.rows) {
+      throw new IllegalArgumentException("The cached maze is not the size of this graph.");
+    }
+    this.resetVertices();
+    this.edges.seed = solution.seed;
+    solution.unpack(this.grid);
+    this.grid.reuseEdges(this.vertices, this.mst);
+    this.setEdges();
+    this.restartSearch();
+    this.worklist.clear();
+    PathCursor cells = solution.path.cursor();
+    cells.next();
+    while (cells.hasNext()) {
+      this.reconstructList.add(this.vertices.get(cells.next()));
+    }
+  }
+
+  // EFFECT: solves the maze by filling its dead ends, showing the filled cells as visited,
+  // and starts drawing the solution
+  void fillDeadEnds() {
+    this.resetStates();
+    this.restartSearch();
+    this.worklist.clear();
+    if (this.filler == null) {
+      this.filler = new MazeDeadEndFiller();
+    }
+    this.filler.solve(this.grid);
+    for (int i = 0; i < this.vertices.size(); i++) {
+      if (this.filler.filled[i]) {
+        this.mark(this.vertices.get(i), MazePalette.VISITED);
+      }
+    }
+    int[] path = this.filler.path(this.grid);
+    for (int k = 1; k < path.length; k++) {
+      this.reconstructList.add(this.vertices.get(path[k]));
+    }
+  }
+
+  // EFFECT: gives every vertex its starting state and closes all of its walls
+  void resetVertices() {
+    this.tree = null;
+    int cells = this.vertices.size();
+    for (int i = 0; i < cells; i++) {
+      this.vertices.get(i).reset(MazePalette.startState(i, cells));
+    }
+  }
+
+  // EFFECT: gives every vertex its starting state, leaving its walls as they are
+  void resetStates() {
+    int cells = this.vertices.size();
+    for (int i = 0; i < cells; i++) {
+      this.vertices.get(i).state = MazePalette.startState(i, cells);
+    }
+  }
+
+  // measures the shape of this maze: its dead ends, junctions, solution and diameter
+  MazeAnalytics analyze() {
+    if (this.analytics == null) {
+      this.analytics = new MazeAnalytics();
+    }
+    this.analytics.analyze(this.grid);
+    return this.analytics;
+  }
+
+  // makes the vertices on the path between the two given vertices, both included, from a
+  // tree of the maze that is built the first time it is needed
+  ArrayList<Vertex> pathBetween(Vertex from, Vertex to) {
+    if (this.tree == null) {
+      this.tree = new MazeTree(this.grid);
+    }
+    ArrayList<Vertex> path = new ArrayList<Vertex>();
+    for (int cell : this.tree.path(this.indexOf(from), this.indexOf(to))) {
+      path.add(this.vertices.get(cell));
+    }
+    return path;
+  }
+
+  // the cell number of the given vertex, counting row by row
+  int indexOf(Vertex v) {
+    return (v.y / v.size) * this.grid.cols + v.x / v.size;
+  }
+
+  // EFFECT: clears the search so it starts again from the first vertex, and repaints
+  void restartSearch() {
+    this.forgetVisited();
+    this.worklist.clear();
+    this.worklist.add(this.vertices.get(0));
+    this.reconstructList.clear();
+    this.bfs = false;
+    this.dfs = false;
+    this.metrics.resetSearch();
+    if (this.raster != null) {
+      this.raster.paintAll(this.vertices);
+    }
+  }
+
+  // EFFECT: pans or zooms the viewport for the given key
+  void moveViewport(String key) {
+    if (key.equals("left")) {
+      this.viewport.panStep(-1, 0);
+    }
+    if (key.equals("right")) {
+      this.viewport.panStep(1, 0);
+    }
+    if (key.equals("up")) {
+      this.viewport.panStep(0, -1);
+    }
+    if (key.equals("down")) {
+      this.viewport.panStep(0, 1);
+    }
+    if (key.equals("+") || key.equals("=")) {
+      this.viewport.zoomIn();
+    }
+    if (key.equals("-")) {
+      this.viewport.zoomOut();
+    }
+    if (key.equals("o")) {
+      this.viewport.overview();
     }
   }
 
   @Override
   // makes the world scene that is displayed
   public WorldScene makeScene() {
-    WorldScene scene = new WorldScene(Graph.COLS * Graph.OFFSET, Graph.ROWS * Graph.OFFSET);
-    return this.placeEdges(this.placeGrid(scene));
+    long start = 0;
+    if (this.metrics.enabled) {
+      start = System.nanoTime();
+    }
+    WorldScene scene;
+    if (this.viewport != null) {
+      scene = new WorldScene(this.viewport.width, this.viewport.height);
+      this.viewport.place(scene, this.vertices);
+    }
+    else if (this.raster != null) {
+      scene = new WorldScene(Graph.COLS * Graph.OFFSET, Graph.ROWS * Graph.OFFSET);
+      this.raster.place(scene);
+    }
+    else {
+      scene = new WorldScene(Graph.COLS * Graph.OFFSET, Graph.ROWS * Graph.OFFSET);
+      this.placeEdges(this.placeGrid(scene));
+    }
+    if (this.metrics.enabled) {
+      this.metrics.recordRender(start);
+    }
+    return scene;
   }
 
   // places grid on the screen
@@ -417,6 +629,7 @@ class Graph extends World {
 class ExamplesMazeWorld {
   void testGame(Tester t) {
     Graph g = new Graph(100, 60, new Random());
+    g.tickBudget = Graph.DEFAULT_BUDGET;
     g.bigBang(Graph.COLS * Graph.OFFSET + 2, Graph.ROWS * Graph.OFFSET + 2, 0.0001);
   }
 }
@@ -444,58 +657,29 @@ class ExamplesMaze {
   Graph g2;
   Graph g3;
 
-  // function classes
-  WeightComparator wc;
-  HashMap<Vertex, Vertex> hm;
-
   // WorldScenes
   WorldScene background;
   WorldScene background2;
 
-  // Array lists of edges and vertices
-  ArrayList<Edge> edges1;
-  ArrayList<Edge> edges2;
-  ArrayList<Edge> edges3;
-  ArrayList<Edge> sortedges;
-  ArrayList<Vertex> vertex1;
-  ArrayList<Vertex> vertex2;
-  ArrayList<Vertex> vertex3;
-  ArrayList<Vertex> vertex4;
-
   // data to be used specifically for testing
   void init() {
-    this.v1 = new Vertex(0, 0, Color.GREEN);
-    this.v2 = new Vertex(1, 0, Color.LIGHT_GRAY);
-    this.v3 = new Vertex(0, 1, Color.LIGHT_GRAY);
-    this.v4 = new Vertex(1, 1, Color.magenta);
-
-    this.e1 = new Edge(v1, v2);
-    this.e2 = new Edge(v1, v3);
-    this.e3 = new Edge(v2, v4);
-    this.e4 = new Edge(v3, v4);
-    this.e1.weight = 0;
-    this.e2.weight = 1;
-    this.e3.weight = 0;
-    this.e4.weight = 2;
+    this.v1 = new Vertex(0, 0, MazePalette.START);
+    this.v2 = new Vertex(1, 0, MazePalette.UNVISITED);
+    this.v3 = new Vertex(0, 1, MazePalette.UNVISITED);
+    this.v4 = new Vertex(1, 1, MazePalette.GOAL);
+
+    this.e1 = new Edge(this.v1, this.v2, 0);
+    this.e2 = new Edge(this.v1, this.v3, 1);
+    this.e3 = new Edge(this.v2, this.v4, 0);
+    this.e4 = new Edge(this.v3, this.v4, 2);
 
     this.g0 = new Graph(2, 2, new Random(5));
     this.g1 = new Graph(10, 10, new Random(5));
     this.g2 = new Graph(50, 25, new Random(5));
     this.g3 = new Graph(100, 60, new Random(5));
 
-    this.wc = new WeightComparator();
-    this.hm = new HashMap<Vertex, Vertex>(4, 1);
     this.background = new WorldScene(500, 500);
     this.background2 = new WorldScene(500, 500);
-
-    this.edges1 = new ArrayList<Edge>(Arrays.asList(this.e1));
-    this.edges2 = new ArrayList<Edge>(Arrays.asList(this.e1, this.e2));
-    this.edges3 = new ArrayList<Edge>(Arrays.asList(this.e1, this.e2, this.e3, this.e4));
-    this.sortedges = new ArrayList<Edge>(Arrays.asList(this.e1, this.e3, this.e2, this.e4));
-    this.vertex1 = new ArrayList<Vertex>(Arrays.asList(this.v1));
-    this.vertex2 = new ArrayList<Vertex>(Arrays.asList(this.v1, this.v2));
-    this.vertex3 = new ArrayList<Vertex>(Arrays.asList(this.v1, this.v2, this.v3));
-    this.vertex4 = new ArrayList<Vertex>(Arrays.asList(this.v1, this.v2, this.v3, this.v4));
   }
 
   // to test the Left method in Vertex class
@@ -542,39 +726,6 @@ class ExamplesMaze {
     t.checkExpect(this.v2.bottom, this.v4);
   }
 
-  // to test the addEdge method in the Vertex class
-  void testAddEdge(Tester t) {
-    this.init();
-    t.checkExpect(this.v1.outEdges, new ArrayList<Edge>());
-    t.checkExpect(this.v2.outEdges, new ArrayList<Edge>());
-    this.v1.addEdge(v2, new Random(7));
-    this.v1.right = this.v2;
-    this.v1.initEdges(new Random(7));
-    Vertex v = new Vertex(0, 0, Color.green);
-    Vertex v1 = new Vertex(1, 0, Color.LIGHT_GRAY);
-    v.right = v1;
-    Edge e = new Edge(v, v1);
-    e.weight = 4236;
-    v.outEdges = new ArrayList<Edge>(Arrays.asList(e, e));
-    t.checkExpect(this.v2.outEdges, new ArrayList<Edge>());
-    t.checkExpect(this.v1.outEdges, new ArrayList<Edge>(Arrays.asList(e, e)));
-  }
-
-  // to test the InitEdges method in the Vertex class
-  void testInitEdges(Tester t) {
-    this.init();
-    this.v1.right = this.v2;
-    t.checkExpect(this.v1.outEdges, new ArrayList<Edge>());
-    this.v1.initEdges(new Random(7));
-    Vertex v = new Vertex(0, 0, Color.green);
-    Vertex v1 = new Vertex(1, 0, Color.LIGHT_GRAY);
-    v.right = v1;
-    Edge e = new Edge(v, v1);
-    e.weight = 4236;
-    v.outEdges = new ArrayList<Edge>(Arrays.asList(e));
-    t.checkExpect(this.v1.outEdges, new ArrayList<Edge>(Arrays.asList(e)));
-  }
-
   // to test the draw method in the vertex class
   void testDraw(Tester t) {
     this.init();
@@ -593,68 +744,23 @@ class ExamplesMaze {
     t.checkExpect(this.background, this.background2);
   }
 
-  // to test the placeEdges method in the WeightComparator class
-  void testCompare(Tester t) {
-    this.init();
-    t.checkExpect(this.wc.compare(this.e1, this.e2), -1);
-    t.checkExpect(this.wc.compare(this.e2, this.e1), 1);
-    t.checkExpect(this.wc.compare(this.e4, this.e1), 2);
-    t.checkExpect(this.wc.compare(this.e1, this.e1), 0);
-    t.checkExpect(this.wc.compare(this.e1, this.e3), 0);
-  }
-
-  // to test the getAllEdges method in the graph class
-  void testGetAllEdges(Tester t) {
-    this.init();
-    this.v1.outEdges = this.edges1;
-    this.g1.vertices = this.vertex1;
-    this.v2.outEdges = this.edges2;
-    this.g2.vertices = this.vertex2;
-    this.v3.outEdges = this.edges3;
-    this.g3.vertices = this.vertex3;
-    t.checkExpect(this.g1.getAllEdges(), this.edges1);
-    t.checkExpect(this.g2.getAllEdges(),
-        new ArrayList<Edge>(Arrays.asList(this.e1, this.e1, this.e2)));
-    t.checkExpect(this.g3.getAllEdges(), new ArrayList<Edge>(
-        Arrays.asList(this.e1, this.e1, this.e2, this.e1, this.e2, this.e3, this.e4)));
-  }
-
-  // to test the Find method in the Graph class
-  void testFind(Tester t) {
-    this.init();
-    t.checkExpect(this.g0.find(this.hm, this.g0.vertices.get(0)), null);
-    this.hm.put(this.g0.vertices.get(0), this.g0.vertices.get(0));
-    this.hm.put(this.g0.vertices.get(1), this.g0.vertices.get(1));
-    this.hm.put(this.g0.vertices.get(2), this.g0.vertices.get(2));
-    this.hm.put(this.g0.vertices.get(3), this.g0.vertices.get(3));
-    t.checkExpect(this.g0.find(this.hm, this.g0.vertices.get(0)), this.g0.vertices.get(0));
-    t.checkExpect(this.g0.find(this.hm, this.g0.vertices.get(1)), this.g0.vertices.get(1));
-    t.checkExpect(this.g0.find(this.hm, this.g0.vertices.get(2)), this.g0.vertices.get(2));
-  }
-
   // to test the constructMST method in the graph class
   void testConstructMST(Tester t) {
     this.init();
-    HashMap<Vertex, Vertex> representatives = new HashMap<Vertex, Vertex>();
-    ArrayList<Edge> worklist = new ArrayList<Edge>(this.g0.getAllEdges());
-    worklist.sort(new WeightComparator());
-    ArrayList<Edge> mst = new ArrayList<Edge>();
-
-    for (Vertex v : this.g0.vertices) {
-      representatives.put(v, v);
-    }
-
-    while (!worklist.isEmpty()) {
-      Edge e = worklist.remove(0);
-      Vertex fromRep = this.g0.find(representatives, e.from);
-      Vertex toRep = this.g0.find(representatives, e.to);
-      if (fromRep != toRep) {
-        mst.add(e);
-        representatives.replace(this.g0.find(representatives, toRep), fromRep);
-      }
+    KruskalBuilder kruskal = new KruskalBuilder();
+    MazeGrid grid = new MazeGrid(10, 10);
+    kruskal.build(this.g1.edges, grid);
+    ArrayList<Edge> mst = this.g1.constructMST();
+    t.checkExpect(mst, kruskal.treeEdges(this.g1.edges, this.g1.vertices));
+    t.checkExpect(mst.size(), 99);
+    t.checkExpect(this.g1.grid.open, grid.open);
+    t.checkExpect(new ExamplesMazeGrid().reachable(grid), 100);
+    boolean sorted = true;
+    for (int k = 1; k < mst.size(); k++) {
+      sorted = sorted && mst.get(k - 1).weight <= mst.get(k).weight;
     }
-    t.checkExpect(this.g0.constructMST(), mst);
-    t.checkExpect(this.g0.mst, mst);
+    t.checkExpect(sorted, true);
+    t.checkExpect(this.g0.mst, this.g0.constructMST());
   }
 
   // to test the generateVertices method in the graph class
@@ -687,7 +793,7 @@ class ExamplesMaze {
     t.checkExpect(this.g0.mst.get(0).from.topEdge, true);
     t.checkExpect(this.g0.mst.get(0).from.bottomEdge, false);
     t.checkExpect(this.g0.mst.get(0).from.leftEdge, true);
-    t.checkExpect(this.g0.mst.get(0).from.rightEdge, true);
+    t.checkExpect(this.g0.mst.get(0).from.rightEdge, false);
   }
 
   // to test the solve method in the graph class
@@ -697,11 +803,11 @@ class ExamplesMaze {
     this.g0.worklist = new ArrayDeque<Vertex>(Arrays.asList(this.v1, this.v2));
     this.g0.solve(v1);
     t.checkExpect(this.g0.worklist, new ArrayDeque<Vertex>(Arrays.asList()));
-    t.checkExpect(this.v2.color, Color.LIGHT_GRAY);
+    t.checkExpect(this.v2.state, MazePalette.UNVISITED);
     this.g0.vertices = new ArrayList<Vertex>(Arrays.asList(this.v1));
     this.g0.worklist = new ArrayDeque<Vertex>(Arrays.asList(this.v1, this.v2));
     this.g0.solve(v2);
-    t.checkExpect(this.v2.color, new Color(150, 180, 255));
+    t.checkExpect(this.v2.state, MazePalette.VISITED);
   }
 
   // to test the addNeighbors method in the graph class;
@@ -729,14 +835,14 @@ class ExamplesMaze {
     this.g0.addNeighbors(this.v2);
     t.checkExpect(this.g0.worklist,
         new ArrayDeque<Vertex>(Arrays.asList(this.v1, this.v4, this.v1, this.v1)));
-    this.g0.visited = new ArrayList<Vertex>(Arrays.asList(this.v1));
+    this.v1.visitedMark = this.g0.epoch;
     this.v2.leftEdge = true;
     this.v2.topEdge = false;
     this.v2.top = this.v1;
     this.g0.addNeighbors(this.v2);
     t.checkExpect(this.g0.worklist,
         new ArrayDeque<Vertex>(Arrays.asList(this.v1, this.v4, this.v1, this.v1)));
-    this.g0.visited = new ArrayList<Vertex>(Arrays.asList());
+    this.g0.forgetVisited();
     this.g0.addNeighbors(this.v2);
     t.checkExpect(this.g0.worklist, new ArrayDeque<Vertex>(
         Arrays.asList(this.v1, this.v4, this.v1, this.v1, this.v1, this.v1)));
@@ -753,7 +859,7 @@ class ExamplesMaze {
     this.g0.addNeighbor(this.v2, this.v1);
     t.checkExpect(this.g0.worklist,
         new ArrayDeque<Vertex>(Arrays.asList(this.v1, this.v4, this.v1)));
-    this.g0.visited = new ArrayList<Vertex>(Arrays.asList(this.v1));
+    this.v1.visitedMark = this.g0.epoch;
     this.g0.addNeighbor(this.v2, this.v1);
     t.checkExpect(this.g0.worklist,
         new ArrayDeque<Vertex>(Arrays.asList(this.v1, this.v4, this.v1)));
@@ -765,10 +871,10 @@ class ExamplesMaze {
     t.checkExpect(this.g0.reconstructList, new ArrayList<Vertex>());
     this.g0.vertices = new ArrayList<Vertex>(Arrays.asList(this.v1));
     this.g0.reconstructList(this.v1);
-    this.g0.cameFromEdge.put(v1, v1);
+    this.v1.cameFrom = this.v1;
     t.checkExpect(this.g0.reconstructList, new ArrayList<Vertex>(Arrays.asList()));
     this.g0.vertices = new ArrayList<Vertex>(Arrays.asList(this.v1));
-    this.g0.cameFromEdge.put(v2, v1);
+    this.v2.cameFrom = this.v1;
     this.g0.reconstructList(this.v2);
     t.checkExpect(this.g0.reconstructList, new ArrayList<Vertex>(Arrays.asList(this.v2)));
   }
@@ -778,9 +884,9 @@ class ExamplesMaze {
     this.init();
     this.g0.vertices = new ArrayList<Vertex>(Arrays.asList(this.v1));
     this.g0.reconstructList = new ArrayList<Vertex>(Arrays.asList(this.v1, this.v1));
-    t.checkExpect(this.v1.color, Color.green);
+    t.checkExpect(this.v1.state, MazePalette.START);
     this.g0.reconstruct();
-    t.checkExpect(this.v1.color, Color.blue);
+    t.checkExpect(this.v1.state, MazePalette.PATH);
   }
 
   // to test the onTick method in the graph class
@@ -793,9 +899,9 @@ class ExamplesMaze {
     t.checkExpect(this.g0.worklist, new ArrayDeque<Vertex>(Arrays.asList()));
     this.g0.vertices = new ArrayList<Vertex>(Arrays.asList(this.v1));
     this.g0.reconstructList = new ArrayList<Vertex>(Arrays.asList(this.v1, this.v1));
-    t.checkExpect(this.v1.color, Color.green);
+    t.checkExpect(this.v1.state, MazePalette.START);
     this.g0.onTick();
-    t.checkExpect(this.v1.color, Color.blue);
+    t.checkExpect(this.v1.state, MazePalette.PATH);
   }
 
   // to test the onKeyEvent method in the graph class
@@ -810,6 +916,97 @@ class ExamplesMaze {
     t.checkExpect(this.g0.dfs, false);
   }
 
+  // to test the reset, isVisited and forgetVisited methods in the graph class
+  void testReset(Tester t) {
+    Graph g = new Graph(10, 10, new Random(5));
+    Vertex first = g.vertices.get(0);
+    Edge firstEdge = g.mst.get(0);
+    g.onKeyEvent("b");
+    for (int i = 0; i < 30; i++) {
+      g.onTick();
+    }
+    t.checkExpect(g.isVisited(first), true);
+    t.checkExpect(g.visitedCount > 0, true);
+    g.onKeyEvent("r");
+    t.checkExpect(g.vertices.get(0) == first, true);
+    t.checkExpect(g.mst.get(0) == firstEdge, true);
+    t.checkExpect(g.mst.size(), 99);
+    t.checkExpect(g.isVisited(first), false);
+    t.checkExpect(g.visitedCount, 0);
+    t.checkExpect(g.bfs, false);
+    t.checkExpect(g.worklist, new ArrayDeque<Vertex>(Arrays.asList(first)));
+    t.checkExpect(first.state, MazePalette.START);
+    t.checkExpect(g.vertices.get(99).state, MazePalette.GOAL);
+    t.checkExpect(g.vertices.get(50).state, MazePalette.UNVISITED);
+    Graph fresh = new Graph(10, 10, new Random(5));
+    fresh.edges.seed = g.edges.seed;
+    fresh.mst = fresh.constructMST();
+    boolean same = true;
+    for (int k = 0; k < 99; k++) {
+      Edge e = g.mst.get(k);
+      Edge f = fresh.mst.get(k);
+      same = same && e.weight == f.weight && e.from.x == f.from.x && e.from.y == f.from.y
+          && e.to.x == f.to.x && e.to.y == f.to.y && e.from == g.vertices.get(e.from.y
+              / Graph.OFFSET * 10 + e.from.x / Graph.OFFSET);
+    }
+    t.checkExpect(same, true);
+    g.epoch = Integer.MAX_VALUE;
+    first.visitedMark = Integer.MAX_VALUE;
+    g.forgetVisited();
+    t.checkExpect(g.epoch, 1);
+    t.checkExpect(g.isVisited(first), false);
+  }
+
+  // to test the step method in the graph class
+  void testStep(Tester t) {
+    Graph g = new Graph(2, 2, new Random(5));
+    t.checkExpect(g.step(), false);
+    g.onKeyEvent("b");
+    t.checkExpect(g.step(), true);
+    t.checkExpect(g.vertices.get(0).state, MazePalette.VISITED);
+    int steps = 1;
+    while (g.step()) {
+      steps += 1;
+    }
+    t.checkExpect(steps < 8, true);
+    t.checkExpect(g.worklist.isEmpty(), true);
+    t.checkExpect(g.vertices.get(3).state, MazePalette.PATH);
+    t.checkExpect(g.vertices.get(0).state, MazePalette.PATH);
+  }
+
+  // to test the tick budget in the onTick and onKeyEvent methods in the graph class
+  void testTickBudget(Tester t) {
+    Graph g = new Graph(30, 30, new Random(5));
+    g.onKeyEvent("b");
+    g.onTick();
+    t.checkExpect(g.visitedCount, 1);
+    g.onKeyEvent("t");
+    t.checkExpect(g.tickBudget, Graph.DEFAULT_BUDGET);
+    g.tickBudget = 1000000000L;
+    g.onTick();
+    t.checkExpect(g.worklist.isEmpty(), true);
+    t.checkExpect(g.reconstructList.isEmpty(), true);
+    t.checkExpect(g.vertices.get(899).state, MazePalette.PATH);
+    t.checkExpect(g.vertices.get(0).state, MazePalette.PATH);
+    g.onKeyEvent("t");
+    t.checkExpect(g.tickBudget, 0L);
+  }
+
+  // to test that a path too long to recur on is reconstructed
+  void testLongReconstructList(Tester t) {
+    Graph g = new Graph(2, 2, new Random(5));
+    Vertex at = g.vertices.get(0);
+    for (int i = 0; i < 200000; i++) {
+      Vertex next = new Vertex(0, 0, MazePalette.UNVISITED);
+      next.cameFrom = at;
+      at = next;
+    }
+    g.reconstructList(at);
+    t.checkExpect(g.reconstructList.size(), 200000);
+    t.checkExpect(g.reconstructList.get(199999), at);
+    t.checkExpect(g.reconstructList.get(198888).cameFrom, g.reconstructList.get(198887));
+  }
+
   // to test the makeScene method in the graph class
   void testMakeScene(Tester t) {
     this.init();
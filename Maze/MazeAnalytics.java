@@ -0,0 +1,223 @@
+import java.util.Arrays;
+import java.util.Random;
+import tester.*;
+
+//to represent the shape of a perfect maze, measured for grading how hard it is:
+//how many cells have each number of open sides, the length of the solution from the top left
+//to the bottom right, and the diameter, the longest path between any two cells
+//the diameter of a tree is found by two breadth first sweeps, the first from any cell to the
+//farthest one and the second from there; in a tree a sweep only needs to skip the cell it
+//came from, so the sweeps keep the queue and nothing per cell
+//the buffers are kept between mazes, so one instance can grade many mazes in a row
+class MazeAnalytics {
+  int[] degrees = new int[5]; // how many cells have 0 to 4 open sides
+  int cells;
+  int deadEnds; // cells with one open side
+  int junctions; // cells with three or four open sides
+  int solutionLength; // cells from the top left to the bottom right, both included
+  int diameter; // steps on the longest path
+  int diameterFrom;
+  int diameterTo;
+  int[] queue = new int[0];
+  int[] from = new int[0]; // the cell each queued cell was reached from
+  int[] next = new int[4];
+  int sweepDepth; // the depth of the last cell the last sweep reached
+  int targetDepth; // the depth at which the last sweep reached its target, or -1
+
+  // EFFECT: measures the given maze, which must be a perfect maze
+  void analyze(MazeGrid grid) {
+    int n = grid.cells();
+    if (this.queue.length != n) {
+      this.queue = new int[n];
+      this.from = new int[n];
+    }
+    this.cells = n;
+    Arrays.fill(this.degrees, 0);
+    int passages = 0;
+    for (int i = 0; i < n; i++) {
+      int sides = Integer.bitCount(grid.open[i]);
+      passages += sides;
+      if (i % grid.cols != 0) {
+        sides += grid.open[i - 1] & MazeGrid.RIGHT;
+      }
+      if (i >= grid.cols) {
+        sides += (grid.open[i - grid.cols] & MazeGrid.DOWN) >> 1;
+      }
+      this.degrees[sides] += 1;
+    }
+    if (passages != n - 1) {
+      throw new IllegalArgumentException("The maze is not a perfect maze.");
+    }
+    this.deadEnds = this.degrees[1];
+    this.junctions = this.degrees[3] + this.degrees[4];
+    this.diameterFrom = this.sweep(grid, 0, n - 1);
+    this.solutionLength = this.targetDepth + 1;
+    this.diameterTo = this.sweep(grid, this.diameterFrom, -1);
+    this.diameter = this.sweepDepth;
+  }
+
+  // EFFECT: sweeps the tree breadth first from the given cell a level at a time, recording
+  // the depth of the last cell reached and of the given target; returns the last cell reached
+  int sweep(MazeGrid grid, int source, int target) {
+    this.queue[0] = source;
+    this.from[0] = -1;
+    int head = 0;
+    int tail = 1;
+    int depth = 0;
+    this.targetDepth = -1;
+    while (head < tail) {
+      int levelEnd = tail;
+      while (head < levelEnd) {
+        int cell = this.queue[head];
+        int parent = this.from[head];
+        head += 1;
+        if (cell == target) {
+          this.targetDepth = depth;
+        }
+        int count = grid.neighbors(cell, this.next);
+        for (int k = 0; k < count; k++) {
+          if (this.next[k] != parent) {
+            if (tail == this.queue.length) {
+              throw new IllegalArgumentException("The maze is not a perfect maze.");
+            }
+            this.queue[tail] = this.next[k];
+            this.from[tail] = cell;
+            tail += 1;
+          }
+        }
+      }
+      depth += 1;
+    }
+    if (tail != this.queue.length) {
+      throw new IllegalArgumentException("The maze is not a perfect maze.");
+    }
+    this.sweepDepth = depth - 1;
+    return this.queue[tail - 1];
+  }
+
+  // the average number of ways on from a cell that is not a dead end, not counting the way
+  // in; a long corridor is 1 and a maze that forks at every cell is close to 3
+  double branchingFactor() {
+    int inner = this.degrees[2] + this.degrees[3] + this.degrees[4];
+    if (inner == 0) {
+      return 0;
+    }
+    else {
+      return (double) (this.degrees[2] + 2 * this.degrees[3] + 3 * this.degrees[4]) / inner;
+    }
+  }
+
+  // describes the last maze measured
+  String summary() {
+    return String.format("cells=%d solution=%d diameter=%d dead-ends=%d junctions=%d "
+        + "branching=%.3f degrees=%s", this.cells, this.solutionLength, this.diameter,
+        this.deadEnds, this.junctions, this.branchingFactor(), Arrays.toString(this.degrees));
+  }
+
+  // measures many mazes of one size from each generator, and reports how many an hour
+  // could be measured, and generated and measured
+  // arguments: cols rows count
+  public static void main(String[] args) {
+    int cols = MazeBatch.argOr(args, 0, 100);
+    int rows = MazeBatch.argOr(args, 1, 100);
+    int count = MazeBatch.argOr(args, 2, 2000);
+    MazeGrid grid = new MazeGrid(cols, rows);
+    MazeAnalytics analytics = new MazeAnalytics();
+    for (IMazeGenerator generator : MazeGenerators.all()) {
+      long generating = 0;
+      long analyzing = 0;
+      long diameters = 0;
+      for (int i = 0; i < count; i++) {
+        long start = System.nanoTime();
+        generator.generate(grid, i);
+        long mid = System.nanoTime();
+        analytics.analyze(grid);
+        long end = System.nanoTime();
+        generating += mid - start;
+        analyzing += end - mid;
+        diameters += analytics.diameter;
+      }
+      System.out.printf("%-11s %dx%d: analyze %.3fms (%.0f/hour), with generating %.0f/hour, "
+          + "mean diameter %d%n", generator.name(), cols, rows, analyzing / 1e6 / count,
+          3.6e12 * count / analyzing, 3.6e12 * count / (generating + analyzing),
+          diameters / count);
+      System.out.println("  last: " + analytics.summary());
+    }
+  }
+}
+
+//to represent examples and tests of the maze analytics
+class ExamplesMazeAnalytics {
+  ExamplesMazeAnalytics() {
+  }
+
+  // to test the analyze method in the MazeAnalytics class on a small maze
+  void testAnalyze(Tester t) {
+    MazeAnalytics a = new MazeAnalytics();
+    a.analyze(new ExamplesMazeTree().comb());
+    t.checkExpect(a.degrees, new int[] { 0, 3, 2, 1, 0 });
+    t.checkExpect(a.deadEnds, 3);
+    t.checkExpect(a.junctions, 1);
+    t.checkExpect(a.solutionLength, 4);
+    t.checkExpect(a.diameterFrom, 5);
+    t.checkExpect(a.diameterTo, 3);
+    t.checkExpect(a.diameter, 4);
+    t.checkExpect(a.branchingFactor(), 4.0 / 3);
+    a.analyze(new MazeGrid(1, 1));
+    t.checkExpect(a.solutionLength, 1);
+    t.checkExpect(a.diameter, 0);
+    t.checkExpect(a.branchingFactor(), 0.0);
+    MazeGrid loop = new MazeGrid(2, 2);
+    loop.open(0, 1);
+    loop.open(1, 3);
+    loop.open(3, 2);
+    loop.open(2, 0);
+    t.checkException(new IllegalArgumentException("The maze is not a perfect maze."), a,
+        "analyze", loop);
+    MazeGrid apart = new MazeGrid(3, 2);
+    apart.open(0, 1);
+    apart.open(1, 4);
+    apart.open(4, 3);
+    apart.open(3, 0);
+    apart.open(2, 5);
+    t.checkException(new IllegalArgumentException("The maze is not a perfect maze."), a,
+        "analyze", apart);
+  }
+
+  // to test the analyze method in the MazeAnalytics class against every pair of cells
+  void testAnalyzeMaze(Tester t) {
+    MazeGrid grid = new MazeGrid(17, 13);
+    new WilsonGenerator().generate(grid, 4);
+    MazeAnalytics a = new MazeAnalytics();
+    a.analyze(grid);
+    MazeTree tree = new MazeTree(grid);
+    int longest = 0;
+    int deadEnds = 0;
+    int[] next = new int[4];
+    for (int i = 0; i < grid.cells(); i++) {
+      for (int j = i + 1; j < grid.cells(); j++) {
+        longest = Math.max(longest, tree.distance(i, j));
+      }
+      if (grid.neighbors(i, next) == 1) {
+        deadEnds += 1;
+      }
+    }
+    t.checkExpect(a.diameter, longest);
+    t.checkExpect(tree.distance(a.diameterFrom, a.diameterTo), longest);
+    t.checkExpect(a.deadEnds, deadEnds);
+    t.checkExpect(a.solutionLength, tree.depth[grid.cells() - 1] + 1);
+    t.checkExpect(a.degrees[0] + a.degrees[1] + a.degrees[2] + a.degrees[3] + a.degrees[4],
+        grid.cells());
+  }
+
+  // to test the analyze method in the Graph class
+  void testGraphAnalyze(Tester t) {
+    Graph g = new Graph(12, 9, new Random(3));
+    MazeAnalytics a = g.analyze();
+    MazeSolver solver = new MazeSolver();
+    solver.solve(g.grid, true);
+    t.checkExpect(a.solutionLength, solver.pathLength);
+    t.checkExpect(a.cells, 108);
+    t.checkExpect(g.analyze() == a, true);
+  }
+}
@@ -0,0 +1,342 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import tester.*;
+
+//to represent one maze to generate and solve in a batch
+class MazeJob {
+  int cols;
+  int rows;
+  long seed;
+  String algorithm; // "bfs" or "dfs"
+
+  // the constructor
+  MazeJob(int cols, int rows, long seed, String algorithm) {
+    if (cols < 1 || rows < 1 || !(algorithm.equals("bfs") || algorithm.equals("dfs"))) {
+      throw new IllegalArgumentException("Invalid arguments passed to constructor.");
+    }
+    this.cols = cols;
+    this.rows = rows;
+    this.seed = seed;
+    this.algorithm = algorithm;
+  }
+}
+
+//to represent the outcome of one job in a batch
+class MazeResult {
+  MazeJob job;
+  int pathLength; // cells on the path from the top left to the bottom right, both included
+  int visited; // cells the search expanded before reaching the bottom right
+  long generateNanos;
+  long solveNanos;
+
+  // the constructor
+  MazeResult(MazeJob job, int pathLength, int visited, long generateNanos, long solveNanos) {
+    this.job = job;
+    this.pathLength = pathLength;
+    this.visited = visited;
+    this.generateNanos = generateNanos;
+    this.solveNanos = solveNanos;
+  }
+
+  // describes this result
+  String summary() {
+    return String.format("%dx%d seed=%d %s path=%d visited=%d generate=%.3fms solve=%.3fms",
+        this.job.cols, this.job.rows, this.job.seed, this.job.algorithm, this.pathLength,
+        this.visited, this.generateNanos / 1e6, this.solveNanos / 1e6);
+  }
+}
+
+//to represent a search from the top left cell of a grid to its bottom right cell
+//over int arrays, the same order Graph searches in; the buffers are kept between solves
+class MazeSolver {
+  int[] work = new int[0]; // the worklist, taken from the front for bfs and the back for dfs
+  int[] cameFrom = new int[0];
+  int[] seenMark = new int[0]; // a cell is seen when its mark equals epoch
+  int epoch;
+  int[] next = new int[4];
+  int visited;
+  int pathLength;
+
+  // EFFECT: searches the given grid breadth first or depth first, and records how many
+  // cells were expanded and how long the path found is
+  void solve(MazeGrid grid, boolean bfs) {
+    int n = grid.cells();
+    if (this.work.length != n) {
+      this.work = new int[n];
+      this.cameFrom = new int[n];
+      this.seenMark = new int[n];
+      this.epoch = 0;
+    }
+    this.epoch += 1;
+    int target = n - 1;
+    int head = 0;
+    int tail = 0;
+    this.work[tail] = 0;
+    tail += 1;
+    this.seenMark[0] = this.epoch;
+    this.cameFrom[0] = 0;
+    this.visited = 0;
+    this.pathLength = 0;
+    while (head < tail) {
+      int cell;
+      if (bfs) {
+        cell = this.work[head];
+        head += 1;
+      }
+      else {
+        tail -= 1;
+        cell = this.work[tail];
+      }
+      if (cell == target) {
+        this.pathLength = this.pathTo(target);
+        return;
+      }
+      this.visited += 1;
+      int count = grid.neighbors(cell, this.next);
+      for (int k = 0; k < count; k++) {
+        int neighbor = this.next[k];
+        if (this.seenMark[neighbor] != this.epoch) {
+          this.seenMark[neighbor] = this.epoch;
+          this.cameFrom[neighbor] = cell;
+          this.work[tail] = neighbor;
+          tail += 1;
+        }
+      }
+    }
+  }
+
+  // makes the cells on the path from the top left cell to the given cell, in that order
+  int[] pathCells(int cell) {
+    int[] path = new int[this.pathTo(cell)];
+    int at = cell;
+    for (int k = path.length - 1; k >= 0; k--) {
+      path[k] = at;
+      at = this.cameFrom[at];
+    }
+    return path;
+  }
+
+  // counts the cells from the top left cell to the given cell, both included
+  int pathTo(int cell) {
+    int length = 1;
+    int at = cell;
+    while (at != 0) {
+      at = this.cameFrom[at];
+      length += 1;
+    }
+    return length;
+  }
+}
+
+//to represent the buffers one worker thread reuses across the jobs it runs
+class MazeWorker {
+  KruskalBuilder kruskal = new KruskalBuilder();
+  MazeSolver solver = new MazeSolver();
+  MazeGrid grid = new MazeGrid(1, 1);
+
+  // generates and solves the given job
+  MazeResult run(MazeJob job) {
+    if (this.grid.cols != job.cols || this.grid.rows != job.rows) {
+      this.grid = new MazeGrid(job.cols, job.rows);
+    }
+    long start = System.nanoTime();
+    this.kruskal.build(new EdgeSource(job.cols, job.rows, job.seed), this.grid);
+    long generated = System.nanoTime();
+    this.solver.solve(this.grid, job.algorithm.equals("bfs"));
+    long solved = System.nanoTime();
+    return new MazeResult(job, this.solver.pathLength, this.solver.visited,
+        generated - start, solved - generated);
+  }
+}
+
+//to represent a service that generates and solves many mazes at once on an executor,
+//handing back each result as soon as its job finishes
+//it uses no Graph, so it needs no display and does not touch Graph's static dimensions
+class MazeBatch {
+  static final ThreadLocal<MazeWorker> WORKERS = ThreadLocal.withInitial(MazeWorker::new);
+  Executor executor;
+
+  // the constructor
+  MazeBatch(Executor executor) {
+    this.executor = executor;
+  }
+
+  // makes a pool with the given number of threads, to be shut down by the caller
+  static ExecutorService fixedPool(int threads) {
+    return Executors.newFixedThreadPool(threads);
+  }
+
+  // EFFECT: runs every job on the executor and gives each result to the sink on this thread
+  // as it completes; returns the results in the order they completed
+  ArrayList<MazeResult> run(ArrayList<MazeJob> jobs, Consumer<MazeResult> sink) {
+    ExecutorCompletionService<MazeResult> done =
+        new ExecutorCompletionService<MazeResult>(this.executor);
+    for (MazeJob job : jobs) {
+      done.submit(() -> MazeBatch.WORKERS.get().run(job));
+    }
+    ArrayList<MazeResult> results = new ArrayList<MazeResult>(jobs.size());
+    for (int i = 0; i < jobs.size(); i++) {
+      MazeResult result;
+      try {
+        result = done.take().get();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for maze jobs.", e);
+      }
+      catch (ExecutionException e) {
+        throw new IllegalStateException("A maze job failed.", e.getCause());
+      }
+      results.add(result);
+      sink.accept(result);
+    }
+    return results;
+  }
+
+  // runs a batch of mazes and prints each result as it completes
+  // arguments: cols rows count threads [bfs|dfs]
+  public static void main(String[] args) {
+    int cols = MazeBatch.argOr(args, 0, 200);
+    int rows = MazeBatch.argOr(args, 1, 200);
+    int count = MazeBatch.argOr(args, 2, 64);
+    int threads = MazeBatch.argOr(args, 3, Runtime.getRuntime().availableProcessors());
+    String algorithm = "bfs";
+    if (args.length > 4) {
+      algorithm = args[4];
+    }
+    ArrayList<MazeJob> jobs = new ArrayList<MazeJob>();
+    for (int i = 0; i < count; i++) {
+      jobs.add(new MazeJob(cols, rows, i, algorithm));
+    }
+    ExecutorService pool = MazeBatch.fixedPool(threads);
+    long start = System.nanoTime();
+    new MazeBatch(pool).run(jobs, r -> System.out.println(r.summary()));
+    long nanos = System.nanoTime() - start;
+    pool.shutdown();
+    System.out.printf("%d mazes on %d threads in %.3fms (%.1f mazes/s)%n", count, threads,
+        nanos / 1e6, count * 1e9 / nanos);
+  }
+
+  // reads the given argument as an int, or gives the default if it is missing
+  static int argOr(String[] args, int i, int otherwise) {
+    if (args.length > i) {
+      return Integer.parseInt(args[i]);
+    }
+    else {
+      return otherwise;
+    }
+  }
+}
+
+//to represent examples and tests of the maze batch service
+class ExamplesMazeBatch {
+  ExamplesMazeBatch() {
+  }
+
+  // makes a 3x2 grid whose only path from the top left to the bottom right
+  // goes right along the top and down the right side, with a branch down from cell 0
+  // that ends next to the bottom right
+  MazeGrid hook() {
+    MazeGrid grid = new MazeGrid(3, 2);
+    grid.open(0, 1);
+    grid.open(1, 2);
+    grid.open(2, 5);
+    grid.open(0, 3);
+    grid.open(3, 4);
+    return grid;
+  }
+
+  // to test the MazeJob constructor
+  void testMazeJob(Tester t) {
+    t.checkExpect(new MazeJob(3, 2, 7, "dfs").algorithm, "dfs");
+    t.checkConstructorException(
+        new IllegalArgumentException("Invalid arguments passed to constructor."), "MazeJob",
+        3, 2, 7L, "astar");
+    t.checkConstructorException(
+        new IllegalArgumentException("Invalid arguments passed to constructor."), "MazeJob",
+        0, 2, 7L, "bfs");
+  }
+
+  // to test the solve and pathTo methods in the MazeSolver class
+  void testSolve(Tester t) {
+    MazeSolver solver = new MazeSolver();
+    solver.solve(this.hook(), true);
+    t.checkExpect(solver.pathLength, 4);
+    t.checkExpect(solver.visited, 5);
+    t.checkExpect(solver.pathTo(4), 3);
+    t.checkExpect(solver.pathCells(5), new int[] { 0, 1, 2, 5 });
+    t.checkExpect(solver.pathCells(0), new int[] { 0 });
+    MazeGrid shortcut = this.hook();
+    shortcut.open(4, 5);
+    solver.solve(shortcut, false);
+    t.checkExpect(solver.pathLength, 4);
+    t.checkExpect(solver.visited, 3);
+    solver.solve(new MazeGrid(1, 1), true);
+    t.checkExpect(solver.pathLength, 1);
+    t.checkExpect(solver.visited, 0);
+  }
+
+  // to test that the solver expands the same cells as a Graph
+  void testSolveLikeGraph(Tester t) {
+    Graph g = new Graph(10, 10, new Random(5));
+    g.onKeyEvent("d");
+    while (!g.worklist.isEmpty() || !g.reconstructList.isEmpty()) {
+      g.onTick();
+    }
+    int blue = 0;
+    for (Vertex v : g.vertices) {
+      if (v.state == MazePalette.PATH) {
+        blue += 1;
+      }
+    }
+    MazeSolver solver = new MazeSolver();
+    solver.solve(g.grid, false);
+    t.checkExpect(solver.visited, g.visitedCount);
+    t.checkExpect(solver.pathLength, blue);
+  }
+
+  // to test the run method in the MazeWorker class
+  void testWorker(Tester t) {
+    MazeWorker worker = new MazeWorker();
+    MazeResult bfs = worker.run(new MazeJob(20, 10, 3, "bfs"));
+    MazeResult dfs = worker.run(new MazeJob(20, 10, 3, "dfs"));
+    t.checkExpect(bfs.pathLength, dfs.pathLength);
+    t.checkExpect(bfs.pathLength >= 29, true);
+    t.checkExpect(worker.grid.cols, 20);
+    worker.run(new MazeJob(4, 4, 3, "bfs"));
+    t.checkExpect(worker.grid.cols, 4);
+  }
+
+  // to test the run method in the MazeBatch class
+  void testRun(Tester t) {
+    ExecutorService pool = MazeBatch.fixedPool(3);
+    ArrayList<MazeJob> jobs = new ArrayList<MazeJob>();
+    for (int i = 0; i < 8; i++) {
+      jobs.add(new MazeJob(30, 20, i, "bfs"));
+    }
+    ArrayList<MazeResult> streamed = new ArrayList<MazeResult>();
+    ArrayList<MazeResult> results = new MazeBatch(pool).run(jobs, streamed::add);
+    pool.shutdown();
+    t.checkExpect(results.size(), 8);
+    t.checkExpect(streamed, results);
+    int[] paths = new int[8];
+    int[] expected = new int[8];
+    MazeWorker worker = new MazeWorker();
+    for (int i = 0; i < 8; i++) {
+      paths[(int) results.get(i).job.seed] = results.get(i).pathLength;
+      expected[i] = worker.run(jobs.get(i)).pathLength;
+    }
+    t.checkExpect(Arrays.equals(paths, expected), true);
+    ArrayList<MazeResult> none = new MazeBatch(Runnable::run).run(new ArrayList<MazeJob>(),
+        r -> {
+        });
+    t.checkExpect(none.size(), 0);
+  }
+}
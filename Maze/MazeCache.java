@@ -0,0 +1,270 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import tester.*;
+
+//to represent what identifies a generated maze: its size, seed and generator
+class MazeKey {
+  int cols;
+  int rows;
+  long seed;
+  String algorithm; // the name of the generator
+
+  // the constructor
+  MazeKey(int cols, int rows, long seed, String algorithm) {
+    this.cols = cols;
+    this.rows = rows;
+    this.seed = seed;
+    this.algorithm = algorithm;
+  }
+
+  // determines if the given object is a key for the same maze
+  public boolean equals(Object other) {
+    if (!(other instanceof MazeKey)) {
+      return false;
+    }
+    MazeKey that = (MazeKey) other;
+    return this.cols == that.cols && this.rows == that.rows && this.seed == that.seed
+        && this.algorithm.equals(that.algorithm);
+  }
+
+  // hashes this key consistently with equals
+  public int hashCode() {
+    int h = this.cols;
+    h = 31 * h + this.rows;
+    h = 31 * h + Long.hashCode(this.seed);
+    return 31 * h + this.algorithm.hashCode();
+  }
+}
+
+//to represent a solved maze kept compactly: its walls at two bits per cell,
+//32 cells to a long, and its solution from the top left to the bottom right as packed moves
+class MazeSolution {
+  static final int OVERHEAD = 96; // rough bytes for the objects and array headers of an entry
+  int cols;
+  int rows;
+  long seed;
+  long[] walls;
+  PackedPath path;
+
+  // the constructor
+  MazeSolution(int cols, int rows, long seed, long[] walls, PackedPath path) {
+    this.cols = cols;
+    this.rows = rows;
+    this.seed = seed;
+    this.walls = walls;
+    this.path = path;
+  }
+
+  // packs the passages of the given grid, two bits per cell
+  static long[] pack(MazeGrid grid) {
+    long[] walls = new long[(grid.cells() + 31) >>> 5];
+    for (int i = 0; i < grid.cells(); i++) {
+      walls[i >>> 5] |= (long) grid.open[i] << ((i & 31) << 1);
+    }
+    return walls;
+  }
+
+  // EFFECT: writes the passages of this maze into the given grid
+  void unpack(MazeGrid grid) {
+    for (int i = 0; i < grid.cells(); i++) {
+      grid.open[i] = (byte) ((this.walls[i >>> 5] >>> ((i & 31) << 1)) & 3);
+    }
+  }
+
+  // estimates the memory this solution takes, in bytes
+  long bytes() {
+    return MazeSolution.OVERHEAD + 8L * this.walls.length + this.path.bytes();
+  }
+}
+
+//to represent a least recently used cache of solved mazes, bounded by an estimate of the
+//memory its entries take, so reopening a seeded maze skips generating and solving it
+//it is synchronized, and a miss generates the maze while holding the lock since the
+//generators and the solver keep buffers that cannot be shared
+class MazeCache {
+  long maxBytes;
+  long bytes;
+  LinkedHashMap<MazeKey, MazeSolution> entries; // least recently used first
+  LinkedHashMap<String, IMazeGenerator> generators; // by name
+  MazeGrid grid = new MazeGrid(1, 1);
+  MazeSolver solver = new MazeSolver();
+  long hits;
+  long misses;
+  long evictions;
+
+  // the constructor
+  MazeCache(long maxBytes) {
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException("Invalid arguments passed to constructor.");
+    }
+    this.maxBytes = maxBytes;
+    this.entries = new LinkedHashMap<MazeKey, MazeSolution>(16, 0.75f, true);
+    this.generators = new LinkedHashMap<String, IMazeGenerator>();
+    for (IMazeGenerator generator : MazeGenerators.all()) {
+      this.generators.put(generator.name(), generator);
+    }
+  }
+
+  // finds the solved maze for the given key, generating and solving it on a miss
+  synchronized MazeSolution get(int cols, int rows, long seed, String algorithm) {
+    MazeKey key = new MazeKey(cols, rows, seed, algorithm);
+    MazeSolution solution = this.entries.get(key);
+    if (solution != null) {
+      this.hits += 1;
+      return solution;
+    }
+    this.misses += 1;
+    solution = this.solve(key);
+    this.entries.put(key, solution);
+    this.bytes += solution.bytes();
+    this.evict();
+    return solution;
+  }
+
+  // generates and solves the maze for the given key
+  MazeSolution solve(MazeKey key) {
+    IMazeGenerator generator = this.generators.get(key.algorithm);
+    if (generator == null) {
+      throw new IllegalArgumentException("No maze generator is named " + key.algorithm + ".");
+    }
+    if (this.grid.cols != key.cols || this.grid.rows != key.rows) {
+      this.grid = new MazeGrid(key.cols, key.rows);
+    }
+    generator.generate(this.grid, key.seed);
+    this.solver.solve(this.grid, true);
+    return new MazeSolution(key.cols, key.rows, key.seed, MazeSolution.pack(this.grid),
+        PackedPath.trace(this.solver.cameFrom, this.grid.cells() - 1, key.cols));
+  }
+
+  // EFFECT: drops the least recently used entries until this cache fits in its bound
+  void evict() {
+    Iterator<Map.Entry<MazeKey, MazeSolution>> oldest = this.entries.entrySet().iterator();
+    while (this.bytes > this.maxBytes && oldest.hasNext()) {
+      MazeSolution solution = oldest.next().getValue();
+      oldest.remove();
+      this.bytes -= solution.bytes();
+      this.evictions += 1;
+    }
+  }
+
+  // the fraction of lookups that were hits
+  synchronized double hitRate() {
+    if (this.hits + this.misses == 0) {
+      return 0;
+    }
+    else {
+      return (double) this.hits / (this.hits + this.misses);
+    }
+  }
+
+  // describes the contents and statistics of this cache
+  synchronized String report() {
+    return String.format("cache: entries=%d bytes=%d/%d hits=%d misses=%d (%.1f%% hit) "
+        + "evictions=%d%n", this.entries.size(), this.bytes, this.maxBytes, this.hits,
+        this.misses, 100 * this.hitRate(), this.evictions);
+  }
+}
+
+//to represent examples and tests of the maze solution cache
+class ExamplesMazeCache {
+  ExamplesMazeCache() {
+  }
+
+  // to test the equals and hashCode methods in the MazeKey class
+  void testMazeKey(Tester t) {
+    MazeKey k = new MazeKey(4, 3, 7, "prim");
+    t.checkExpect(k.equals(new MazeKey(4, 3, 7, "prim")), true);
+    t.checkExpect(k.hashCode(), new MazeKey(4, 3, 7, "prim").hashCode());
+    t.checkExpect(k.equals(new MazeKey(4, 3, 8, "prim")), false);
+    t.checkExpect(k.equals(new MazeKey(3, 4, 7, "prim")), false);
+    t.checkExpect(k.equals(new MazeKey(4, 3, 7, "wilson")), false);
+    t.checkExpect(k.equals("prim"), false);
+  }
+
+  // to test the pack and unpack methods in the MazeSolution class
+  void testPack(Tester t) {
+    MazeGrid grid = new MazeGrid(7, 5);
+    new BacktrackerGenerator().generate(grid, 3);
+    long[] walls = MazeSolution.pack(grid);
+    t.checkExpect(walls.length, 2);
+    MazeGrid copy = new MazeGrid(7, 5);
+    new MazeSolution(7, 5, 3, walls, PackedPath.of(new int[] { 0 }, 7)).unpack(copy);
+    t.checkExpect(copy.open, grid.open);
+    t.checkExpect(new MazeSolution(7, 5, 3, walls, PackedPath.of(new int[] { 0, 1, 2 }, 7))
+        .bytes(), 96L + 16 + 8);
+  }
+
+  // to test the get method in the MazeCache class
+  void testGet(Tester t) {
+    MazeCache cache = new MazeCache(1 << 20);
+    MazeSolution first = cache.get(20, 10, 5, "kruskal");
+    t.checkExpect(cache.misses, 1L);
+    t.checkExpect(cache.get(20, 10, 5, "kruskal") == first, true);
+    t.checkExpect(cache.hits, 1L);
+    t.checkExpect(cache.hitRate(), 0.5);
+    t.checkExpect(first.path.start, 0);
+    t.checkExpect(first.path.end(), 199);
+    MazeResult result = new MazeWorker().run(new MazeJob(20, 10, 5, "bfs"));
+    t.checkExpect(first.path.length(), result.pathLength);
+    t.checkExpect(cache.bytes, first.bytes());
+    cache.get(20, 10, 5, "wilson");
+    t.checkExpect(cache.misses, 2L);
+    t.checkException(new IllegalArgumentException("No maze generator is named astar."), cache,
+        "get", 20, 10, 5L, "astar");
+  }
+
+  // to test the evict method in the MazeCache class
+  void testEvict(Tester t) {
+    MazeSolution probe = new MazeCache(1 << 20).get(10, 10, 1, "prim");
+    MazeCache cache = new MazeCache(2 * probe.bytes() + 50);
+    cache.get(10, 10, 1, "prim");
+    cache.get(10, 10, 2, "prim");
+    cache.get(10, 10, 1, "prim");
+    cache.get(10, 10, 3, "prim");
+    t.checkExpect(cache.evictions >= 1, true);
+    t.checkExpect(cache.bytes <= cache.maxBytes, true);
+    t.checkExpect(cache.entries.containsKey(new MazeKey(10, 10, 3, "prim")), true);
+    MazeCache none = new MazeCache(0);
+    none.get(10, 10, 1, "prim");
+    t.checkExpect(none.entries.size(), 0);
+    t.checkExpect(none.bytes, 0L);
+    t.checkConstructorException(
+        new IllegalArgumentException("Invalid arguments passed to constructor."), "MazeCache",
+        -1L);
+  }
+
+  // to test the load method in the Graph class
+  void testLoad(Tester t) {
+    MazeCache cache = new MazeCache(1 << 20);
+    MazeSolution solution = cache.get(6, 4, 11, "backtracker");
+    Graph g = new Graph(6, 4, new Random(5));
+    g.onKeyEvent("b");
+    g.onTick();
+    g.load(solution);
+    MazeGrid expected = new MazeGrid(6, 4);
+    solution.unpack(expected);
+    t.checkExpect(g.grid.open, expected.open);
+    boolean walls = true;
+    for (int i = 0; i < 24; i++) {
+      Vertex v = g.vertices.get(i);
+      walls = walls && v.rightEdge != expected.canGoRight(i)
+          && v.bottomEdge != expected.canGoDown(i) && v.leftEdge != expected.canGoLeft(i)
+          && v.topEdge != expected.canGoUp(i);
+    }
+    t.checkExpect(walls, true);
+    t.checkExpect(g.mst.size(), 23);
+    t.checkExpect(g.bfs, false);
+    t.checkExpect(g.worklist.size(), 0);
+    t.checkExpect(g.reconstructList.size(), solution.path.steps);
+    t.checkExpect(g.reconstructList.get(g.reconstructList.size() - 1), g.vertices.get(23));
+    for (int i = 0; i < solution.path.steps; i++) {
+      g.onTick();
+    }
+    t.checkExpect(g.vertices.get(0).state, MazePalette.PATH);
+    t.checkException(
+        new IllegalArgumentException("The cached maze is not the size of this graph."), g,
+        "load", cache.get(3, 3, 1, "prim"));
+  }
+}
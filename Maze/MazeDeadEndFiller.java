@@ -0,0 +1,373 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import tester.*;
+
+//to represent solving a perfect maze by filling its dead ends: a cell other than the start
+//and the goal with only one unfilled open side is filled, which can make its neighbor a dead
+//end in turn, and what is never filled is the solution
+//filling a dead end changes only the one neighbor it opens to, so each fill is a chain and
+//needs no worklist
+//the rows are split into bands filled at the same time on a ForkJoinPool; a band treats the
+//cells of other bands as never filled and stops a chain at its edge, so bands share no
+//writes; a sequential pass then settles each passage across a band edge with one filled
+//end, and follows the chains that continue across the whole grid
+class MazeDeadEndFiller {
+  ForkJoinPool pool;
+  int bands; // how many bands to split the rows into
+  int sequentialCells; // grids with fewer cells than this are filled as one band
+  byte[] degree = new byte[0]; // the unfilled open sides of each cell
+  boolean[] filled = new boolean[0];
+  int[] next = new int[4];
+  int pathLength; // cells left unfilled by the last solve
+  int crossFills; // cells filled by the sequential pass of the last solve
+
+  // the constructor, with four bands for each thread of the common pool
+  MazeDeadEndFiller() {
+    this(ForkJoinPool.commonPool(), 4 * ForkJoinPool.getCommonPoolParallelism(), 1 << 16);
+  }
+
+  // the constructor
+  MazeDeadEndFiller(ForkJoinPool pool, int bands, int sequentialCells) {
+    if (bands < 1 || sequentialCells < 0) {
+      throw new IllegalArgumentException("Invalid arguments passed to constructor.");
+    }
+    this.pool = pool;
+    this.bands = bands;
+    this.sequentialCells = sequentialCells;
+  }
+
+  // EFFECT: fills every dead end of the given perfect maze, leaving only its solution from
+  // the top left to the bottom right unfilled
+  void solve(MazeGrid grid) {
+    int n = grid.cells();
+    if (this.degree.length != n) {
+      this.degree = new byte[n];
+      this.filled = new boolean[n];
+    }
+    int count = Math.min(this.bands, grid.rows);
+    if (n < this.sequentialCells) {
+      count = 1;
+    }
+    if (count == 1) {
+      this.fillBand(grid, 0, grid.rows, new int[4]);
+    }
+    else {
+      this.pool.invoke(new FillAction(this, grid, 0, count, count));
+    }
+    this.crossFills = 0;
+    this.settleEdges(grid, count);
+    this.pathLength = 0;
+    for (int i = 0; i < n; i++) {
+      if (!this.filled[i]) {
+        this.pathLength += 1;
+      }
+    }
+  }
+
+  // the first row of the given band of the given number of bands
+  int bandStart(MazeGrid grid, int band, int count) {
+    return (int) ((long) grid.rows * band / count);
+  }
+
+  // EFFECT: counts the open sides of the cells from row lo to row hi, then fills the dead
+  // ends among them, following each chain until it leaves the band
+  void fillBand(MazeGrid grid, int lo, int hi, int[] around) {
+    int first = lo * grid.cols;
+    int last = hi * grid.cols;
+    for (int i = first; i < last; i++) {
+      int sides = Integer.bitCount(grid.open[i]);
+      if (i % grid.cols != 0) {
+        sides += grid.open[i - 1] & MazeGrid.RIGHT;
+      }
+      if (i >= grid.cols) {
+        sides += (grid.open[i - grid.cols] & MazeGrid.DOWN) >> 1;
+      }
+      this.degree[i] = (byte) sides;
+      this.filled[i] = false;
+    }
+    for (int i = first; i < last; i++) {
+      if (!this.filled[i]) {
+        this.fillFrom(grid, i, first, last, around);
+      }
+    }
+  }
+
+  // EFFECT: settles the passages across the edges between the given number of bands,
+  // where each band treated the cells of the others as unfilled: first the cell at the
+  // unfilled end of each passage with one filled end loses that side, then the chains
+  // those cells start are followed across the whole grid
+  void settleEdges(MazeGrid grid, int count) {
+    int n = grid.cells();
+    for (int b = 1; b < count; b++) {
+      int first = this.bandStart(grid, b, count) * grid.cols;
+      for (int below = first; below < first + grid.cols; below++) {
+        int above = below - grid.cols;
+        if (grid.canGoDown(above) && this.filled[above] != this.filled[below]) {
+          if (this.filled[above]) {
+            this.degree[below] -= 1;
+          }
+          else {
+            this.degree[above] -= 1;
+          }
+        }
+      }
+    }
+    for (int b = 1; b < count; b++) {
+      int first = this.bandStart(grid, b, count) * grid.cols;
+      for (int below = first; below < first + grid.cols; below++) {
+        if (grid.canGoDown(below - grid.cols)) {
+          this.crossFills += this.fillFrom(grid, below - grid.cols, 0, n, this.next)
+              + this.fillFrom(grid, below, 0, n, this.next);
+        }
+      }
+    }
+  }
+
+  // EFFECT: fills the given cell if it is a dead end, then each neighbor the fill makes a
+  // dead end, as long as the chain stays in the cells from first up to last; returns how
+  // many cells were filled
+  int fillFrom(MazeGrid grid, int cell, int first, int last, int[] around) {
+    int goal = grid.cells() - 1;
+    int at = cell;
+    int count = 0;
+    while (at > 0 && at != goal && this.degree[at] == 1 && !this.filled[at]) {
+      this.filled[at] = true;
+      this.degree[at] = 0;
+      count += 1;
+      int sides = grid.neighbors(at, around);
+      int open = -1;
+      for (int k = 0; k < sides; k++) {
+        int to = around[k];
+        if (to < first || to >= last || !this.filled[to]) {
+          open = to;
+        }
+      }
+      if (open >= first && open < last) {
+        this.degree[open] -= 1;
+        at = open;
+      }
+      else {
+        at = -1;
+      }
+    }
+    return count;
+  }
+
+  // makes the cells left unfilled by the last solve, from the top left to the bottom right
+  int[] path(MazeGrid grid) {
+    int[] path = new int[this.pathLength];
+    int goal = grid.cells() - 1;
+    int previous = -1;
+    int at = 0;
+    path[0] = 0;
+    for (int k = 1; k < path.length; k++) {
+      int count = grid.neighbors(at, this.next);
+      int step = -1;
+      for (int i = 0; i < count; i++) {
+        if (this.next[i] != previous && !this.filled[this.next[i]]) {
+          step = this.next[i];
+        }
+      }
+      if (step < 0) {
+        throw new IllegalStateException("The unfilled cells are not one path.");
+      }
+      previous = at;
+      at = step;
+      path[k] = at;
+    }
+    if (at != goal) {
+      throw new IllegalStateException("The unfilled cells are not one path.");
+    }
+    return path;
+  }
+
+  // times filling the dead ends of a large maze in one band and in many, against a breadth
+  // first search of it
+  // arguments: cols rows repeats generator
+  public static void main(String[] args) {
+    int cols = MazeBatch.argOr(args, 0, 2000);
+    int rows = MazeBatch.argOr(args, 1, 2000);
+    int repeats = MazeBatch.argOr(args, 2, 5);
+    IMazeGenerator generator = new PrimGenerator();
+    if (args.length > 3) {
+      for (IMazeGenerator g : MazeGenerators.all()) {
+        if (g.name().equals(args[3])) {
+          generator = g;
+        }
+      }
+    }
+    MazeGrid grid = new MazeGrid(cols, rows);
+    generator.generate(grid, 1);
+    MazeDeadEndFiller sequential = new MazeDeadEndFiller(ForkJoinPool.commonPool(), 1, 0);
+    MazeDeadEndFiller parallel = new MazeDeadEndFiller();
+    MazeSolver bfs = new MazeSolver();
+    long[] best = { Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE };
+    for (int r = 0; r <= repeats; r++) {
+      long start = System.nanoTime();
+      sequential.solve(grid);
+      long mid = System.nanoTime();
+      parallel.solve(grid);
+      long end = System.nanoTime();
+      bfs.solve(grid, true);
+      long last = System.nanoTime();
+      if (r > 0) {
+        best[0] = Math.min(best[0], mid - start);
+        best[1] = Math.min(best[1], end - mid);
+        best[2] = Math.min(best[2], last - end);
+      }
+    }
+    System.out.printf("%s %dx%d, best of %d, %d threads%n", generator.name(), cols, rows,
+        repeats, parallel.pool.getParallelism());
+    System.out.printf("fill, 1 band:    %.3fms path=%d%n", best[0] / 1e6, sequential.pathLength);
+    System.out.printf("fill, %d bands: %.3fms path=%d cross-band fills=%d%n", parallel.bands,
+        best[1] / 1e6, parallel.pathLength, parallel.crossFills);
+    System.out.printf("bfs:             %.3fms path=%d visited=%d%n", best[2] / 1e6,
+        bfs.pathLength, bfs.visited);
+  }
+}
+
+//to represent filling the dead ends of the bands from band lo to band hi
+class FillAction extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  MazeDeadEndFiller filler;
+  MazeGrid grid;
+  int lo;
+  int hi;
+  int count; // of all the bands
+
+  // the constructor
+  FillAction(MazeDeadEndFiller filler, MazeGrid grid, int lo, int hi, int count) {
+    this.filler = filler;
+    this.grid = grid;
+    this.lo = lo;
+    this.hi = hi;
+    this.count = count;
+  }
+
+  // EFFECT: fills one band, or splits the bands in half
+  protected void compute() {
+    if (this.hi - this.lo == 1) {
+      this.filler.fillBand(this.grid, this.filler.bandStart(this.grid, this.lo, this.count),
+          this.filler.bandStart(this.grid, this.hi, this.count), new int[4]);
+    }
+    else {
+      int mid = (this.lo + this.hi) >>> 1;
+      FillAction.invokeAll(new FillAction(this.filler, this.grid, this.lo, mid, this.count),
+          new FillAction(this.filler, this.grid, mid, this.hi, this.count));
+    }
+  }
+}
+
+//to represent examples and tests of the dead end filling solver
+class ExamplesMazeDeadEndFiller {
+  ExamplesMazeDeadEndFiller() {
+  }
+
+  // to test the solve and path methods in the MazeDeadEndFiller class on a small maze
+  void testSolveSmall(Tester t) {
+    MazeGrid grid = new ExamplesMazeTree().comb();
+    MazeDeadEndFiller filler = new MazeDeadEndFiller();
+    filler.solve(grid);
+    t.checkExpect(filler.filled, new boolean[] { false, false, false, true, true, false });
+    t.checkExpect(filler.pathLength, 4);
+    t.checkExpect(filler.path(grid), new int[] { 0, 1, 2, 5 });
+    t.checkExpect(filler.crossFills, 0);
+    filler.solve(new MazeGrid(1, 1));
+    t.checkExpect(filler.path(new MazeGrid(1, 1)), new int[] { 0 });
+    MazeGrid apart = new MazeGrid(2, 2);
+    apart.open(0, 1);
+    filler.solve(apart);
+    t.checkExpect(filler.pathLength, 3);
+    t.checkException(new IllegalStateException("The unfilled cells are not one path."), filler,
+        "path", apart);
+    t.checkConstructorException(
+        new IllegalArgumentException("Invalid arguments passed to constructor."),
+        "MazeDeadEndFiller", ForkJoinPool.commonPool(), 0, 0);
+  }
+
+  // to test that filling in bands agrees with filling in one band and with a search
+  void testSolveBands(Tester t) {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    for (IMazeGenerator generator : MazeGenerators.all()) {
+      MazeGrid grid = new MazeGrid(45, 37);
+      generator.generate(grid, 9);
+      MazeDeadEndFiller whole = new MazeDeadEndFiller(pool, 1, 0);
+      whole.solve(grid);
+      MazeDeadEndFiller banded = new MazeDeadEndFiller(pool, 7, 0);
+      banded.solve(grid);
+      MazeSolver solver = new MazeSolver();
+      solver.solve(grid, true);
+      t.checkExpect(banded.filled, whole.filled);
+      t.checkExpect(banded.path(grid), solver.pathCells(grid.cells() - 1));
+      t.checkExpect(whole.crossFills, 0);
+      MazeDeadEndFiller rows = new MazeDeadEndFiller(pool, 100, 0);
+      rows.solve(grid);
+      t.checkExpect(rows.filled, whole.filled);
+    }
+    pool.shutdown();
+  }
+
+  // to test the fillDeadEnds method in the Graph class
+  void testFillDeadEnds(Tester t) {
+    Graph g = new Graph(8, 6, new Random(2));
+    MazeSolver solver = new MazeSolver();
+    solver.solve(g.grid, true);
+    g.onKeyEvent("f");
+    t.checkExpect(g.reconstructList.size(), solver.pathLength - 1);
+    t.checkExpect(g.worklist.size(), 0);
+    int visited = 0;
+    for (Vertex v : g.vertices) {
+      if (v.state == MazePalette.VISITED) {
+        visited += 1;
+      }
+    }
+    t.checkExpect(visited, 48 - solver.pathLength);
+    for (int i = 0; i < solver.pathLength - 1; i++) {
+      g.onTick();
+    }
+    int[] path = solver.pathCells(47);
+    boolean drawn = true;
+    for (int i = 0; i < path.length; i++) {
+      drawn = drawn && g.vertices.get(path[i]).state == MazePalette.PATH;
+    }
+    t.checkExpect(drawn, true);
+    t.checkExpect(g.filler.pathLength, solver.pathLength);
+  }
+
+  // to test the fillDeadEnds method in the Graph class after a search has drawn its path
+  void testFillDeadEndsAfterSearch(Tester t) {
+    Graph g = new Graph(8, 6, new Random(2));
+    g.onKeyEvent("b");
+    boolean more = true;
+    while (more) {
+      more = g.step();
+    }
+    t.checkExpect(g.vertices.get(0).state, MazePalette.PATH);
+    g.onKeyEvent("f");
+    int visited = 0;
+    int path = 0;
+    for (Vertex v : g.vertices) {
+      if (v.state == MazePalette.VISITED) {
+        visited += 1;
+      }
+      if (v.state == MazePalette.PATH) {
+        path += 1;
+      }
+    }
+    t.checkExpect(visited, 48 - g.filler.pathLength);
+    t.checkExpect(path, 0);
+    t.checkExpect(g.vertices.get(0).state, MazePalette.START);
+    t.checkExpect(g.vertices.get(47).state, MazePalette.GOAL);
+    for (int i = 0; i < g.filler.pathLength - 1; i++) {
+      g.onTick();
+    }
+    path = 0;
+    for (Vertex v : g.vertices) {
+      if (v.state == MazePalette.PATH) {
+        path += 1;
+      }
+    }
+    t.checkExpect(path, g.filler.pathLength);
+  }
+}
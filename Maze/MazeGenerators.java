@@ -0,0 +1,344 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+import tester.*;
+
+//to represent a way of carving a perfect maze (a spanning tree of the cells) into a grid
+interface IMazeGenerator {
+  // EFFECT: closes every wall of the given grid and opens the passages of a new maze,
+  // the same seed always gives the same maze
+  void generate(MazeGrid grid, long seed);
+
+  // the name of this generator, for reports
+  String name();
+}
+
+//to represent a generator that keeps its buffers between mazes of the same size
+//the visited cells are a bitset of longs, one bit per cell
+abstract class AMazeGenerator implements IMazeGenerator {
+  long[] inTree = new long[0];
+  int[] cells = new int[0]; // a stack, frontier or walk, depending on the generator
+  int[] next = new int[4];
+
+  // EFFECT: sizes the buffers for the given grid, clears them and closes every wall
+  void prepare(MazeGrid grid) {
+    int n = grid.cells();
+    if (this.cells.length != n) {
+      this.inTree = new long[(n + 63) >>> 6];
+      this.cells = new int[n];
+    }
+    else {
+      Arrays.fill(this.inTree, 0L);
+    }
+    grid.clear();
+  }
+
+  // determines if the given cell is in the tree
+  boolean isIn(long[] bits, int cell) {
+    return (bits[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  // EFFECT: puts the given cell in the given bitset
+  void add(long[] bits, int cell) {
+    bits[cell >>> 6] |= 1L << cell;
+  }
+
+  // EFFECT: writes every cell next to the given cell into next, walls or not,
+  // in the order up, right, down, left, and returns how many there are
+  int around(MazeGrid grid, int cell) {
+    int count = 0;
+    if (cell >= grid.cols) {
+      this.next[count] = cell - grid.cols;
+      count += 1;
+    }
+    if (cell % grid.cols != grid.cols - 1) {
+      this.next[count] = cell + 1;
+      count += 1;
+    }
+    if (cell + grid.cols < grid.cells()) {
+      this.next[count] = cell + grid.cols;
+      count += 1;
+    }
+    if (cell % grid.cols != 0) {
+      this.next[count] = cell - 1;
+      count += 1;
+    }
+    return count;
+  }
+
+  // EFFECT: keeps only the cells in next whose membership in the tree is the given one,
+  // and returns how many are left
+  int keep(int count, boolean in) {
+    int kept = 0;
+    for (int k = 0; k < count; k++) {
+      if (this.isIn(this.inTree, this.next[k]) == in) {
+        this.next[kept] = this.next[k];
+        kept += 1;
+      }
+    }
+    return kept;
+  }
+}
+
+//to represent randomized Kruskal's algorithm, giving the same mazes Graph builds by default
+class KruskalGenerator implements IMazeGenerator {
+  KruskalBuilder kruskal = new KruskalBuilder();
+
+  // EFFECT: builds the minimum spanning tree of seeded random edge weights into the grid
+  public void generate(MazeGrid grid, long seed) {
+    this.kruskal.build(new EdgeSource(grid.cols, grid.rows, seed), grid);
+  }
+
+  // the name of this generator
+  public String name() {
+    return "kruskal";
+  }
+}
+
+//to represent the recursive backtracker, a depth first walk that carves into a random
+//unvisited neighbor and backs up when there is none; it needs only the bitset and a stack
+//its mazes have long winding corridors and few dead ends
+class BacktrackerGenerator extends AMazeGenerator {
+
+  // EFFECT: carves a maze into the grid starting from the top left cell
+  public void generate(MazeGrid grid, long seed) {
+    this.prepare(grid);
+    SplittableRandom rand = new SplittableRandom(seed);
+    int top = 0;
+    this.cells[top] = 0;
+    top += 1;
+    this.add(this.inTree, 0);
+    while (top > 0) {
+      int cell = this.cells[top - 1];
+      int count = this.keep(this.around(grid, cell), false);
+      if (count == 0) {
+        top -= 1;
+      }
+      else {
+        int to = this.next[rand.nextInt(count)];
+        grid.open(cell, to);
+        this.add(this.inTree, to);
+        this.cells[top] = to;
+        top += 1;
+      }
+    }
+  }
+
+  // the name of this generator
+  public String name() {
+    return "backtracker";
+  }
+}
+
+//to represent Wilson's algorithm, which joins each cell to the tree with a loop erased
+//random walk and so picks every spanning tree with the same probability
+//its first walks can wander a long time before they find the tree
+class WilsonGenerator extends AMazeGenerator {
+
+  // EFFECT: carves a uniformly random maze into the grid
+  public void generate(MazeGrid grid, long seed) {
+    this.prepare(grid);
+    SplittableRandom rand = new SplittableRandom(seed);
+    this.add(this.inTree, rand.nextInt(grid.cells()));
+    for (int start = 0; start < grid.cells(); start++) {
+      // walk until the tree is hit, remembering only the last way out of each cell,
+      // which erases any loops the walk made
+      int at = start;
+      while (!this.isIn(this.inTree, at)) {
+        int count = this.around(grid, at);
+        this.cells[at] = this.next[rand.nextInt(count)];
+        at = this.cells[at];
+      }
+      at = start;
+      while (!this.isIn(this.inTree, at)) {
+        this.add(this.inTree, at);
+        grid.open(at, this.cells[at]);
+        at = this.cells[at];
+      }
+    }
+  }
+
+  // the name of this generator
+  public String name() {
+    return "wilson";
+  }
+}
+
+//to represent randomized Prim's algorithm, which grows the tree from one cell by joining
+//a random cell on its frontier to a random neighbor already in the tree
+//its mazes branch often and have many short dead ends
+class PrimGenerator extends AMazeGenerator {
+  long[] inFrontier = new long[0];
+
+  // EFFECT: carves a maze into the grid starting from a random cell
+  public void generate(MazeGrid grid, long seed) {
+    this.prepare(grid);
+    if (this.inFrontier.length != this.inTree.length) {
+      this.inFrontier = new long[this.inTree.length];
+    }
+    else {
+      Arrays.fill(this.inFrontier, 0L);
+    }
+    SplittableRandom rand = new SplittableRandom(seed);
+    int size = 0;
+    size = this.join(grid, rand.nextInt(grid.cells()), size);
+    while (size > 0) {
+      int k = rand.nextInt(size);
+      int cell = this.cells[k];
+      size -= 1;
+      this.cells[k] = this.cells[size];
+      int count = this.keep(this.around(grid, cell), true);
+      grid.open(cell, this.next[rand.nextInt(count)]);
+      size = this.join(grid, cell, size);
+    }
+  }
+
+  // EFFECT: puts the given cell in the tree and its new neighbors on the frontier,
+  // which holds the given number of cells; returns the new size of the frontier
+  int join(MazeGrid grid, int cell, int size) {
+    this.add(this.inTree, cell);
+    int count = this.around(grid, cell);
+    int grown = size;
+    for (int k = 0; k < count; k++) {
+      int to = this.next[k];
+      if (!this.isIn(this.inTree, to) && !this.isIn(this.inFrontier, to)) {
+        this.add(this.inFrontier, to);
+        this.cells[grown] = to;
+        grown += 1;
+      }
+    }
+    return grown;
+  }
+
+  // the name of this generator
+  public String name() {
+    return "prim";
+  }
+}
+
+//to represent a benchmark of the maze generators
+class MazeGenerators {
+
+  // makes one of each generator
+  static ArrayList<IMazeGenerator> all() {
+    ArrayList<IMazeGenerator> all = new ArrayList<IMazeGenerator>();
+    all.add(new KruskalGenerator());
+    all.add(new BacktrackerGenerator());
+    all.add(new WilsonGenerator());
+    all.add(new PrimGenerator());
+    return all;
+  }
+
+  // times each generator on mazes of the given size and prints cells carved per second
+  // arguments: cols rows mazes
+  public static void main(String[] args) {
+    int cols = MazeBatch.argOr(args, 0, 500);
+    int rows = MazeBatch.argOr(args, 1, 500);
+    int mazes = MazeBatch.argOr(args, 2, 20);
+    MazeGrid grid = new MazeGrid(cols, rows);
+    for (IMazeGenerator generator : MazeGenerators.all()) {
+      // warm up on the same sizes so the timed runs are compiled and allocation free
+      for (int i = 0; i < 3; i++) {
+        generator.generate(grid, i);
+      }
+      long start = System.nanoTime();
+      for (int i = 0; i < mazes; i++) {
+        generator.generate(grid, i);
+      }
+      long nanos = System.nanoTime() - start;
+      System.out.printf("%-12s %dx%d: %.3fms per maze, %.1f million cells/s%n",
+          generator.name(), cols, rows, nanos / 1e6 / mazes,
+          (double) grid.cells() * mazes * 1e3 / nanos);
+    }
+  }
+}
+
+//to represent examples and tests of the maze generators
+class ExamplesMazeGenerators {
+  ExamplesMazeGenerators() {
+  }
+
+  // counts the passages opened in the given grid
+  int passages(MazeGrid grid) {
+    int count = 0;
+    for (int i = 0; i < grid.cells(); i++) {
+      if (grid.canGoRight(i)) {
+        count += 1;
+      }
+      if (grid.canGoDown(i)) {
+        count += 1;
+      }
+    }
+    return count;
+  }
+
+  // to test that every generator carves a spanning tree, the same one for the same seed
+  void testGenerate(Tester t) {
+    ExamplesMazeGrid reach = new ExamplesMazeGrid();
+    for (IMazeGenerator generator : MazeGenerators.all()) {
+      MazeGrid grid = new MazeGrid(23, 17);
+      generator.generate(grid, 9);
+      t.checkExpect(reach.reachable(grid), 23 * 17);
+      t.checkExpect(this.passages(grid), 23 * 17 - 1);
+      byte[] first = grid.open.clone();
+      generator.generate(grid, 10);
+      t.checkExpect(this.passages(grid), 23 * 17 - 1);
+      generator.generate(grid, 9);
+      t.checkExpect(grid.open, first);
+      MazeGrid single = new MazeGrid(1, 1);
+      generator.generate(single, 9);
+      t.checkExpect(this.passages(single), 0);
+      MazeGrid line = new MazeGrid(5, 1);
+      generator.generate(line, 9);
+      t.checkExpect(reach.reachable(line), 5);
+    }
+  }
+
+  // to test the around and keep methods in the AMazeGenerator class
+  void testAround(Tester t) {
+    AMazeGenerator g = new BacktrackerGenerator();
+    MazeGrid grid = new MazeGrid(3, 3);
+    g.prepare(grid);
+    t.checkExpect(g.around(grid, 4), 4);
+    t.checkExpect(g.next, new int[] { 1, 5, 7, 3 });
+    t.checkExpect(g.around(grid, 0), 2);
+    t.checkExpect(g.next[0], 1);
+    t.checkExpect(g.next[1], 3);
+    t.checkExpect(g.around(grid, 8), 2);
+    t.checkExpect(g.next[0], 5);
+    t.checkExpect(g.next[1], 7);
+    g.add(g.inTree, 7);
+    g.around(grid, 4);
+    t.checkExpect(g.keep(4, true), 1);
+    t.checkExpect(g.next[0], 7);
+    t.checkExpect(g.isIn(g.inTree, 7), true);
+    t.checkExpect(g.isIn(g.inTree, 6), false);
+  }
+
+  // to test that a Graph can be built by any generator
+  void testGraphGenerator(Tester t) {
+    Graph g = new Graph(8, 6, new Random(5), new WilsonGenerator());
+    t.checkExpect(g.mst.size(), 47);
+    for (Edge e : g.mst) {
+      t.checkExpect(e.from.right == e.to || e.from.bottom == e.to, true);
+    }
+    int open = 0;
+    for (Vertex v : g.vertices) {
+      if (!v.rightEdge) {
+        open += 1;
+      }
+      if (!v.bottomEdge) {
+        open += 1;
+      }
+    }
+    t.checkExpect(open, 47);
+    Edge first = g.mst.get(0);
+    g.onKeyEvent("r");
+    t.checkExpect(g.mst.size(), 47);
+    t.checkExpect(g.mst.get(0) == first, true);
+    MazeSolver solver = new MazeSolver();
+    solver.solve(g.grid, true);
+    t.checkExpect(solver.pathLength > 0, true);
+  }
+}
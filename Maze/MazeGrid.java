@@ -0,0 +1,485 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import tester.*;
+
+//to represent the passages of a maze as one byte per cell,
+//cells are numbered row by row and each cell records if it opens to the right and down
+class MazeGrid {
+  static final byte RIGHT = 1;
+  static final byte DOWN = 2;
+  int cols;
+  int rows;
+  byte[] open;
+
+  // the constructor, every wall starts closed
+  MazeGrid(int cols, int rows) {
+    if (cols < 1 || rows < 1) {
+      throw new IllegalArgumentException("A maze needs at least one cell.");
+    }
+    this.cols = cols;
+    this.rows = rows;
+    this.open = new byte[cols * rows];
+  }
+
+  // counts the cells in this grid
+  int cells() {
+    return this.cols * this.rows;
+  }
+
+  // EFFECT: closes every wall
+  void clear() {
+    Arrays.fill(this.open, (byte) 0);
+  }
+
+  // determines if the given cell opens to the cell on its right
+  boolean canGoRight(int i) {
+    return (this.open[i] & MazeGrid.RIGHT) != 0;
+  }
+
+  // determines if the given cell opens to the cell below it
+  boolean canGoDown(int i) {
+    return (this.open[i] & MazeGrid.DOWN) != 0;
+  }
+
+  // determines if the given cell opens to the cell on its left
+  boolean canGoLeft(int i) {
+    return i % this.cols != 0 && this.canGoRight(i - 1);
+  }
+
+  // determines if the given cell opens to the cell above it
+  boolean canGoUp(int i) {
+    return i >= this.cols && this.canGoDown(i - this.cols);
+  }
+
+  // EFFECT: opens the wall between two adjacent cells
+  void open(int a, int b) {
+    int lo = Math.min(a, b);
+    int hi = Math.max(a, b);
+    if (hi - lo == 1 && lo % this.cols != this.cols - 1) {
+      this.open[lo] |= MazeGrid.RIGHT;
+    }
+    else if (hi - lo == this.cols) {
+      this.open[lo] |= MazeGrid.DOWN;
+    }
+    else {
+      throw new IllegalArgumentException("Cells " + a + " and " + b + " are not adjacent.");
+    }
+  }
+
+  // EFFECT: points the Edge objects already in the given list at the passages of this grid,
+  // row by row with each cell's right passage before its down passage,
+  // making new ones only if the list is too short and dropping any extras
+  void reuseEdges(ArrayList<Vertex> vertices, ArrayList<Edge> edges) {
+    int k = 0;
+    for (int i = 0; i < this.cells(); i++) {
+      if (this.canGoRight(i)) {
+        this.reuseEdge(edges, k, vertices.get(i), vertices.get(i + 1));
+        k += 1;
+      }
+      if (this.canGoDown(i)) {
+        this.reuseEdge(edges, k, vertices.get(i), vertices.get(i + this.cols));
+        k += 1;
+      }
+    }
+    while (edges.size() > k) {
+      edges.remove(edges.size() - 1);
+    }
+  }
+
+  // EFFECT: points the edge at the given index of the list from one vertex to another,
+  // adding it if the list ends at that index
+  void reuseEdge(ArrayList<Edge> edges, int k, Vertex from, Vertex to) {
+    if (k < edges.size()) {
+      Edge e = edges.get(k);
+      e.from = from;
+      e.to = to;
+      e.weight = 0;
+    }
+    else {
+      edges.add(new Edge(from, to, 0));
+    }
+  }
+
+  // EFFECT: writes the open neighbors of the given cell into out, in the order
+  // up, right, down, left, and returns how many there are
+  int neighbors(int i, int[] out) {
+    int count = 0;
+    if (this.canGoUp(i)) {
+      out[count] = i - this.cols;
+      count += 1;
+    }
+    if (this.canGoRight(i)) {
+      out[count] = i + 1;
+      count += 1;
+    }
+    if (this.canGoDown(i)) {
+      out[count] = i + this.cols;
+      count += 1;
+    }
+    if (this.canGoLeft(i)) {
+      out[count] = i - 1;
+      count += 1;
+    }
+    return count;
+  }
+}
+
+//to represent the weighted edges between neighboring cells, generated on demand
+//from a cell index and a seed, edge 2 * i goes right from cell i and edge 2 * i + 1 goes down
+class EdgeSource {
+  static final int MAX_WEIGHT = 10000;
+  int cols;
+  int rows;
+  long seed;
+
+  // the constructor
+  EdgeSource(int cols, int rows, long seed) {
+    this.cols = cols;
+    this.rows = rows;
+    this.seed = seed;
+  }
+
+  // counts the edge ids, including the ones that would leave the grid
+  int slots() {
+    return 2 * this.cols * this.rows;
+  }
+
+  // determines if the given edge id is inside the grid
+  boolean exists(int e) {
+    int cell = e >> 1;
+    if ((e & 1) == 0) {
+      return cell % this.cols != this.cols - 1;
+    }
+    else {
+      return cell / this.cols != this.rows - 1;
+    }
+  }
+
+  // the cell the given edge starts from
+  int from(int e) {
+    return e >> 1;
+  }
+
+  // the cell the given edge goes to
+  int to(int e) {
+    if ((e & 1) == 0) {
+      return (e >> 1) + 1;
+    }
+    else {
+      return (e >> 1) + this.cols;
+    }
+  }
+
+  // the weight of the given edge in [0, MAX_WEIGHT), a hash of the seed and the edge id
+  int weight(int e) {
+    long z = this.seed + (e + 1L) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    z = z ^ (z >>> 31);
+    return (int) ((z >>> 1) % EdgeSource.MAX_WEIGHT);
+  }
+
+  // makes an Edge object for the given edge id between the given vertices
+  Edge materialize(int e, ArrayList<Vertex> vertices) {
+    return new Edge(vertices.get(this.from(e)), vertices.get(this.to(e)), this.weight(e));
+  }
+
+  // makes Edge objects for every edge in the grid, in edge id order
+  ArrayList<Edge> materializeAll(ArrayList<Vertex> vertices) {
+    ArrayList<Edge> all = new ArrayList<Edge>();
+    for (int e = 0; e < this.slots(); e++) {
+      if (this.exists(e)) {
+        all.add(this.materialize(e, vertices));
+      }
+    }
+    return all;
+  }
+}
+
+//to represent Kruskal's algorithm over an edge source using only primitive arrays,
+//the buffers are kept so the same builder can rebuild mazes of the same size cheaply
+class KruskalBuilder {
+  int[] counts = new int[EdgeSource.MAX_WEIGHT + 1];
+  int[] sorted = new int[0]; // edge ids by weight, ties in id order
+  int[] parent = new int[0]; // union-find forest
+  byte[] rank = new byte[0];
+  int[] tree = new int[0]; // the accepted edge ids, in the order they were accepted
+  int treeSize;
+  int edgeCount;
+  long collectNanos;
+  long sortNanos;
+  long unionFindNanos;
+
+  // EFFECT: builds the minimum spanning tree of the given edges, records its edges in tree
+  // and opens them in the given grid
+  void build(EdgeSource source, MazeGrid grid) {
+    long start = System.nanoTime();
+    int n = grid.cells();
+    if (this.parent.length != n) {
+      this.parent = new int[n];
+      this.rank = new byte[n];
+      this.tree = new int[Math.max(0, n - 1)];
+      this.sorted = new int[source.slots()];
+    }
+    Arrays.fill(this.counts, 0);
+    this.edgeCount = 0;
+    for (int e = 0; e < source.slots(); e++) {
+      if (source.exists(e)) {
+        this.counts[source.weight(e) + 1] += 1;
+        this.edgeCount += 1;
+      }
+    }
+    long collected = System.nanoTime();
+
+    for (int w = 0; w < EdgeSource.MAX_WEIGHT; w++) {
+      this.counts[w + 1] += this.counts[w];
+    }
+    for (int e = 0; e < source.slots(); e++) {
+      if (source.exists(e)) {
+        int w = source.weight(e);
+        this.sorted[this.counts[w]] = e;
+        this.counts[w] += 1;
+      }
+    }
+    long sortedAt = System.nanoTime();
+
+    for (int i = 0; i < n; i++) {
+      this.parent[i] = i;
+    }
+    Arrays.fill(this.rank, (byte) 0);
+    grid.clear();
+    this.treeSize = 0;
+    for (int k = 0; k < this.edgeCount && this.treeSize < n - 1; k++) {
+      int e = this.sorted[k];
+      int a = this.find(source.from(e));
+      int b = this.find(source.to(e));
+      if (a != b) {
+        this.union(a, b);
+        this.tree[this.treeSize] = e;
+        this.treeSize += 1;
+        grid.open(source.from(e), source.to(e));
+      }
+    }
+    long end = System.nanoTime();
+    this.collectNanos = collected - start;
+    this.sortNanos = sortedAt - collected;
+    this.unionFindNanos = end - sortedAt;
+  }
+
+  // finds the representative of the given cell, halving the path on the way
+  int find(int i) {
+    int x = i;
+    while (this.parent[x] != x) {
+      this.parent[x] = this.parent[this.parent[x]];
+      x = this.parent[x];
+    }
+    return x;
+  }
+
+  // EFFECT: joins the trees of the two given representatives
+  void union(int a, int b) {
+    if (this.rank[a] < this.rank[b]) {
+      this.parent[a] = b;
+    }
+    else if (this.rank[a] > this.rank[b]) {
+      this.parent[b] = a;
+    }
+    else {
+      this.parent[b] = a;
+      this.rank[a] += 1;
+    }
+  }
+
+  // makes Edge objects for the edges of the last tree built, in the order they were accepted
+  ArrayList<Edge> treeEdges(EdgeSource source, ArrayList<Vertex> vertices) {
+    ArrayList<Edge> mst = new ArrayList<Edge>(this.treeSize);
+    for (int k = 0; k < this.treeSize; k++) {
+      mst.add(source.materialize(this.tree[k], vertices));
+    }
+    return mst;
+  }
+
+  // EFFECT: points the Edge objects already in the given list at the edges of the last tree
+  // built, making new ones only if the list is too short and dropping any extras
+  void reuseTreeEdges(EdgeSource source, ArrayList<Vertex> vertices, ArrayList<Edge> mst) {
+    for (int k = 0; k < this.treeSize; k++) {
+      int e = this.tree[k];
+      if (k < mst.size()) {
+        Edge edge = mst.get(k);
+        edge.from = vertices.get(source.from(e));
+        edge.to = vertices.get(source.to(e));
+        edge.weight = source.weight(e);
+      }
+      else {
+        mst.add(source.materialize(e, vertices));
+      }
+    }
+    while (mst.size() > this.treeSize) {
+      mst.remove(mst.size() - 1);
+    }
+  }
+}
+
+//to represent examples and tests of the primitive maze grid and its construction
+class ExamplesMazeGrid {
+  ExamplesMazeGrid() {
+  }
+
+  // counts the cells reachable from cell 0 in the given grid
+  int reachable(MazeGrid grid) {
+    boolean[] seen = new boolean[grid.cells()];
+    int[] stack = new int[grid.cells()];
+    int[] next = new int[4];
+    int top = 0;
+    int count = 1;
+    stack[top] = 0;
+    top += 1;
+    seen[0] = true;
+    while (top > 0) {
+      top -= 1;
+      int cell = stack[top];
+      for (int k = grid.neighbors(cell, next) - 1; k >= 0; k--) {
+        if (!seen[next[k]]) {
+          seen[next[k]] = true;
+          count += 1;
+          stack[top] = next[k];
+          top += 1;
+        }
+      }
+    }
+    return count;
+  }
+
+  // to test the open and canGo methods in the MazeGrid class
+  void testOpen(Tester t) {
+    MazeGrid grid = new MazeGrid(3, 2);
+    grid.open(1, 0);
+    grid.open(1, 4);
+    t.checkExpect(grid.canGoRight(0), true);
+    t.checkExpect(grid.canGoLeft(1), true);
+    t.checkExpect(grid.canGoDown(1), true);
+    t.checkExpect(grid.canGoUp(4), true);
+    t.checkExpect(grid.canGoLeft(0), false);
+    t.checkExpect(grid.canGoUp(1), false);
+    t.checkExpect(grid.canGoRight(4), false);
+    t.checkException(new IllegalArgumentException("Cells 2 and 3 are not adjacent."), grid,
+        "open", 2, 3);
+    grid.clear();
+    t.checkExpect(grid.canGoRight(0), false);
+  }
+
+  // to test the reuseEdges method in the MazeGrid class
+  void testReuseEdges(Tester t) {
+    Graph g = new Graph(3, 2, new Random(5));
+    MazeGrid grid = new MazeGrid(3, 2);
+    grid.open(0, 1);
+    grid.open(1, 4);
+    ArrayList<Edge> edges = new ArrayList<Edge>(Arrays.asList(g.mst.get(0)));
+    Edge first = edges.get(0);
+    grid.reuseEdges(g.vertices, edges);
+    t.checkExpect(edges.size(), 2);
+    t.checkExpect(edges.get(0) == first, true);
+    t.checkExpect(edges.get(0).from, g.vertices.get(0));
+    t.checkExpect(edges.get(0).to, g.vertices.get(1));
+    t.checkExpect(edges.get(1).to, g.vertices.get(4));
+    grid.clear();
+    grid.reuseEdges(g.vertices, edges);
+    t.checkExpect(edges.size(), 0);
+  }
+
+  // to test the neighbors method in the MazeGrid class
+  void testNeighbors(Tester t) {
+    MazeGrid grid = new MazeGrid(3, 3);
+    grid.open(4, 1);
+    grid.open(4, 5);
+    grid.open(4, 3);
+    int[] out = new int[4];
+    t.checkExpect(grid.neighbors(4, out), 3);
+    t.checkExpect(out, new int[] { 1, 5, 3, 0 });
+    t.checkExpect(grid.neighbors(8, out), 0);
+  }
+
+  // to test the exists, from and to methods in the EdgeSource class
+  void testEdgeIds(Tester t) {
+    EdgeSource source = new EdgeSource(3, 2, 7);
+    t.checkExpect(source.slots(), 12);
+    t.checkExpect(source.exists(0), true);
+    t.checkExpect(source.exists(4), false);
+    t.checkExpect(source.exists(5), true);
+    t.checkExpect(source.exists(7), false);
+    t.checkExpect(source.from(5), 2);
+    t.checkExpect(source.to(5), 5);
+    t.checkExpect(source.to(2), 2);
+  }
+
+  // to test the weight method in the EdgeSource class
+  void testWeight(Tester t) {
+    EdgeSource source = new EdgeSource(50, 50, 7);
+    boolean inRange = true;
+    for (int e = 0; e < source.slots(); e++) {
+      inRange = inRange && source.weight(e) >= 0 && source.weight(e) < EdgeSource.MAX_WEIGHT;
+    }
+    t.checkExpect(inRange, true);
+    t.checkExpect(source.weight(10), new EdgeSource(1, 1, 7).weight(10));
+    t.checkExpect(source.weight(10) == new EdgeSource(50, 50, 8).weight(10)
+        && source.weight(11) == new EdgeSource(50, 50, 8).weight(11), false);
+  }
+
+  // to test the materializeAll method in the EdgeSource class
+  void testMaterializeAll(Tester t) {
+    Graph g = new Graph(2, 2, new Random(5));
+    ArrayList<Edge> all = g.edges.materializeAll(g.vertices);
+    t.checkExpect(all.size(), 4);
+    t.checkExpect(all.get(0).from, g.vertices.get(0));
+    t.checkExpect(all.get(0).to, g.vertices.get(1));
+    t.checkExpect(all.get(1).to, g.vertices.get(2));
+    t.checkExpect(all.get(3).weight, g.edges.weight(4));
+  }
+
+  // to test the build method in the KruskalBuilder class
+  void testBuild(Tester t) {
+    KruskalBuilder kruskal = new KruskalBuilder();
+    MazeGrid grid = new MazeGrid(40, 30);
+    kruskal.build(new EdgeSource(40, 30, 3), grid);
+    t.checkExpect(kruskal.treeSize, 1199);
+    t.checkExpect(kruskal.edgeCount, 39 * 30 + 40 * 29);
+    t.checkExpect(this.reachable(grid), 1200);
+    int[] firstTree = Arrays.copyOf(kruskal.tree, kruskal.treeSize);
+    kruskal.build(new EdgeSource(40, 30, 3), grid);
+    t.checkExpect(Arrays.copyOf(kruskal.tree, kruskal.treeSize), firstTree);
+    MazeGrid single = new MazeGrid(1, 1);
+    kruskal.build(new EdgeSource(1, 1, 3), single);
+    t.checkExpect(kruskal.treeSize, 0);
+  }
+
+  // to test the find and union methods in the KruskalBuilder class
+  void testFindUnion(Tester t) {
+    KruskalBuilder kruskal = new KruskalBuilder();
+    kruskal.parent = new int[] { 0, 1, 2, 3 };
+    kruskal.rank = new byte[4];
+    kruskal.union(0, 1);
+    kruskal.union(2, 3);
+    t.checkExpect(kruskal.find(1), 0);
+    kruskal.union(kruskal.find(3), kruskal.find(1));
+    t.checkExpect(kruskal.find(3), kruskal.find(0));
+    t.checkExpect(kruskal.rank[2], (byte) 2);
+  }
+
+  // to test the reuseTreeEdges method in the KruskalBuilder class
+  void testReuseTreeEdges(Tester t) {
+    Graph g = new Graph(3, 3, new Random(5));
+    KruskalBuilder kruskal = new KruskalBuilder();
+    EdgeSource source = new EdgeSource(3, 3, 11);
+    kruskal.build(source, new MazeGrid(3, 3));
+    ArrayList<Edge> mst = new ArrayList<Edge>(Arrays.asList(g.mst.get(0), g.mst.get(1)));
+    Edge first = mst.get(0);
+    kruskal.reuseTreeEdges(source, g.vertices, mst);
+    t.checkExpect(mst.size(), 8);
+    t.checkExpect(mst.get(0) == first, true);
+    t.checkExpect(mst, kruskal.treeEdges(source, g.vertices));
+    kruskal.build(new EdgeSource(2, 2, 11), new MazeGrid(2, 2));
+    kruskal.reuseTreeEdges(new EdgeSource(2, 2, 11), g.vertices, mst);
+    t.checkExpect(mst.size(), 3);
+  }
+}
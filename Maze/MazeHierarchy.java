@@ -0,0 +1,608 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import tester.*;
+
+//to represent a maze split into square tiles, with the distances between the entrances of
+//each tile precomputed, so a query searches a small graph of entrances and only refines the
+//tiles its route passes through
+//an entrance is a cell with an open passage into another tile; every shortest path is a walk
+//between entrances inside tiles joined by single steps across tile borders, so the distances
+//found on the entrance graph are exact
+//entrances are numbered tile by tile, and the distances inside each tile are found on a
+//ForkJoinPool, one group of tiles per task
+//the queries reuse buffers, so one hierarchy answers one query at a time
+class MazeHierarchy {
+  static final int TILES_PER_TASK = 16;
+  MazeGrid grid;
+  int size; // the width and height of a tile in cells; tiles on the right and bottom can be
+            // smaller
+  int tilesAcross;
+  int tilesDown;
+  int[] nodeOf; // the entrance number of each cell, or -1 if it is not an entrance
+  int[] cellOf; // the cell of each entrance
+  int[] tileStart; // the number of the first entrance in each tile, and the count at the end
+  int[][] dist; // dist[t][i * k + j] is the steps from the ith to the jth of the k entrances
+                // of tile t without leaving it, or -1 if it cannot be done
+  TileSearch refiner;
+  int[] cost = new int[0]; // the best known steps from the start to each entrance
+  int[] from = new int[0]; // the entrance each entrance was best reached from
+  int[] seenMark = new int[0]; // an entrance has a cost when its mark equals epoch
+  int[] doneMark = new int[0]; // an entrance is settled when its mark equals epoch
+  int epoch;
+  long[] heap = new long[16]; // estimated total steps in the high half, entrance in the low
+  int heapSize;
+  int[] startCost = new int[0]; // the steps from the start to each entrance of its tile
+  int[] goalCost = new int[0]; // the steps from each entrance of the goal's tile to the goal
+  int direct; // the steps from the start to the goal inside their tile, or -1
+  int expanded; // how many entrances the last query settled
+
+  // the constructor, on the common pool
+  MazeHierarchy(MazeGrid grid, int size) {
+    this(grid, size, ForkJoinPool.commonPool());
+  }
+
+  // the constructor
+  MazeHierarchy(MazeGrid grid, int size, ForkJoinPool pool) {
+    if (size < 1) {
+      throw new IllegalArgumentException("Invalid arguments passed to constructor.");
+    }
+    this.grid = grid;
+    this.size = size;
+    this.tilesAcross = (grid.cols + size - 1) / size;
+    this.tilesDown = (grid.rows + size - 1) / size;
+    this.refiner = new TileSearch(size);
+    this.findEntrances();
+    this.dist = new int[this.tiles()][];
+    pool.invoke(new TileAction(this, 0, this.tiles()));
+  }
+
+  // counts the tiles
+  int tiles() {
+    return this.tilesAcross * this.tilesDown;
+  }
+
+  // the tile the given cell is in
+  int tileOf(int cell) {
+    return (cell / this.grid.cols / this.size) * this.tilesAcross
+        + (cell % this.grid.cols) / this.size;
+  }
+
+  // counts the entrances of the given tile
+  int entrances(int tile) {
+    return this.tileStart[tile + 1] - this.tileStart[tile];
+  }
+
+  // EFFECT: marks every cell with a passage across a tile border, then numbers them tile by
+  // tile and row by row within each tile
+  void findEntrances() {
+    int cols = this.grid.cols;
+    int n = this.grid.cells();
+    this.nodeOf = new int[n];
+    Arrays.fill(this.nodeOf, -1);
+    this.tileStart = new int[this.tiles() + 1];
+    for (int i = 0; i < n; i++) {
+      if (this.grid.canGoRight(i) && i % cols % this.size == this.size - 1) {
+        this.nodeOf[i] = 0;
+        this.nodeOf[i + 1] = 0;
+      }
+      if (this.grid.canGoDown(i) && i / cols % this.size == this.size - 1) {
+        this.nodeOf[i] = 0;
+        this.nodeOf[i + cols] = 0;
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      if (this.nodeOf[i] == 0) {
+        this.tileStart[this.tileOf(i) + 1] += 1;
+      }
+    }
+    for (int t = 0; t < this.tiles(); t++) {
+      this.tileStart[t + 1] += this.tileStart[t];
+    }
+    this.cellOf = new int[this.tileStart[this.tiles()]];
+    int[] fill = Arrays.copyOf(this.tileStart, this.tiles());
+    for (int i = 0; i < n; i++) {
+      if (this.nodeOf[i] == 0) {
+        int tile = this.tileOf(i);
+        this.nodeOf[i] = fill[tile];
+        this.cellOf[fill[tile]] = i;
+        fill[tile] += 1;
+      }
+    }
+  }
+
+  // EFFECT: finds the steps between every pair of entrances of the given tile, using the
+  // buffers of the given search
+  void connect(int tile, TileSearch search) {
+    int first = this.tileStart[tile];
+    int k = this.entrances(tile);
+    int[] table = new int[k * k];
+    for (int i = 0; i < k; i++) {
+      search.search(this, tile, this.cellOf[first + i]);
+      for (int j = 0; j < k; j++) {
+        table[i * k + j] = search.distTo(this.cellOf[first + j]);
+      }
+    }
+    this.dist[tile] = table;
+  }
+
+  // counts the steps on a shortest path between the two given cells, or -1 if there is none
+  int distance(int start, int goal) {
+    return this.search(start, goal);
+  }
+
+  // makes the cells on a shortest path from start to goal, both included, in that order
+  int[] path(int start, int goal) {
+    int steps = this.search(start, goal);
+    if (steps < 0) {
+      throw new IllegalArgumentException("Cell " + start + " cannot reach cell " + goal + ".");
+    }
+    int[] path = new int[steps + 1];
+    int goalNode = this.cellOf.length + 1;
+    int at = goalNode;
+    int[] route = new int[0];
+    int hops = 0;
+    while (at != this.cellOf.length) {
+      if (hops == route.length) {
+        route = Arrays.copyOf(route, Math.max(8, 2 * hops));
+      }
+      route[hops] = at;
+      hops += 1;
+      at = this.from[at];
+    }
+    path[0] = start;
+    int k = 1;
+    int previous = start;
+    for (int h = hops - 1; h >= 0; h--) {
+      int cell = this.cellAt(route[h], start, goal);
+      if (this.tileOf(previous) == this.tileOf(cell)) {
+        k = this.refine(previous, cell, path, k);
+      }
+      else {
+        path[k] = cell;
+        k += 1;
+      }
+      previous = cell;
+    }
+    return path;
+  }
+
+  // EFFECT: writes the cells after from up to and including to, on a shortest path inside
+  // their tile, into path starting at index k; returns the index after the last one written
+  int refine(int from, int to, int[] path, int k) {
+    this.refiner.search(this, this.tileOf(from), from);
+    int steps = this.refiner.distTo(to);
+    int at = to;
+    for (int i = k + steps - 1; i >= k; i--) {
+      path[i] = at;
+      at = this.refiner.parentOf(at);
+    }
+    return k + steps;
+  }
+
+  // the cell of the given entrance, where the entrance after the last is the start
+  // and the one after that is the goal
+  int cellAt(int node, int start, int goal) {
+    if (node < this.cellOf.length) {
+      return this.cellOf[node];
+    }
+    else if (node == this.cellOf.length) {
+      return start;
+    }
+    else {
+      return goal;
+    }
+  }
+
+  // EFFECT: searches the entrance graph from the start to the goal, A* with the Manhattan
+  // distance, recording where each entrance was reached from; returns the steps between them
+  // or -1 if the goal cannot be reached
+  int search(int start, int goal) {
+    int n = this.grid.cells();
+    if (start < 0 || start >= n || goal < 0 || goal >= n) {
+      throw new IllegalArgumentException("Cells " + start + " and " + goal
+          + " are not both in the maze.");
+    }
+    int nodes = this.cellOf.length + 2;
+    int startNode = nodes - 2;
+    int goalNode = nodes - 1;
+    if (this.cost.length != nodes) {
+      this.cost = new int[nodes];
+      this.from = new int[nodes];
+      this.seenMark = new int[nodes];
+      this.doneMark = new int[nodes];
+      this.epoch = 0;
+    }
+    this.epoch += 1;
+    this.expanded = 0;
+    int startTile = this.tileOf(start);
+    int goalTile = this.tileOf(goal);
+    this.startCost = this.costsFrom(start, this.startCost);
+    this.direct = -1;
+    if (startTile == goalTile) {
+      this.direct = this.refiner.distTo(goal);
+    }
+    this.goalCost = this.costsFrom(goal, this.goalCost);
+    this.heapSize = 0;
+    this.relax(startNode, 0, startNode, start, goal);
+    int[] around = new int[4];
+    while (this.heapSize > 0) {
+      int node = (int) this.pop();
+      if (this.doneMark[node] != this.epoch) {
+        this.doneMark[node] = this.epoch;
+        if (node == goalNode) {
+          return this.cost[goalNode];
+        }
+        this.expanded += 1;
+        this.expand(node, startTile, goalTile, start, goal, around);
+      }
+    }
+    return -1;
+  }
+
+  // EFFECT: searches the tile of the given cell from it, and writes the steps to each
+  // entrance of that tile into the given buffer, or a larger one it makes; returns the buffer
+  int[] costsFrom(int cell, int[] costs) {
+    int tile = this.tileOf(cell);
+    int first = this.tileStart[tile];
+    int k = this.entrances(tile);
+    int[] out = costs;
+    if (out.length < k) {
+      out = new int[k];
+    }
+    this.refiner.search(this, tile, cell);
+    for (int j = 0; j < k; j++) {
+      out[j] = this.refiner.distTo(this.cellOf[first + j]);
+    }
+    return out;
+  }
+
+  // EFFECT: relaxes the edges out of the given entrance
+  void expand(int node, int startTile, int goalTile, int start, int goal, int[] around) {
+    int here = this.cost[node];
+    int goalNode = this.cellOf.length + 1;
+    if (node == this.cellOf.length) {
+      int first = this.tileStart[startTile];
+      for (int j = 0; j < this.entrances(startTile); j++) {
+        if (this.startCost[j] >= 0) {
+          this.relax(first + j, here + this.startCost[j], node, start, goal);
+        }
+      }
+      if (this.direct >= 0) {
+        this.relax(goalNode, here + this.direct, node, start, goal);
+      }
+      return;
+    }
+    int cell = this.cellOf[node];
+    int tile = this.tileOf(cell);
+    int first = this.tileStart[tile];
+    int k = this.entrances(tile);
+    int row = (node - first) * k;
+    int[] table = this.dist[tile];
+    for (int j = 0; j < k; j++) {
+      if (table[row + j] > 0) {
+        this.relax(first + j, here + table[row + j], node, start, goal);
+      }
+    }
+    int count = this.grid.neighbors(cell, around);
+    for (int i = 0; i < count; i++) {
+      if (this.tileOf(around[i]) != tile) {
+        this.relax(this.nodeOf[around[i]], here + 1, node, start, goal);
+      }
+    }
+    if (tile == goalTile && this.goalCost[node - first] >= 0) {
+      this.relax(goalNode, here + this.goalCost[node - first], node, start, goal);
+    }
+  }
+
+  // EFFECT: records that the given entrance can be reached in the given steps from the
+  // entrance before it, if that is better than what is known, and queues it
+  void relax(int node, int steps, int before, int start, int goal) {
+    if (this.doneMark[node] == this.epoch
+        || (this.seenMark[node] == this.epoch && this.cost[node] <= steps)) {
+      return;
+    }
+    this.seenMark[node] = this.epoch;
+    this.cost[node] = steps;
+    this.from[node] = before;
+    int cell = this.cellAt(node, start, goal);
+    int cols = this.grid.cols;
+    int estimate = steps + Math.abs(cell % cols - goal % cols)
+        + Math.abs(cell / cols - goal / cols);
+    this.push(((long) estimate << 32) | node);
+  }
+
+  // EFFECT: adds the given entry to the heap
+  void push(long entry) {
+    if (this.heapSize == this.heap.length) {
+      this.heap = Arrays.copyOf(this.heap, 2 * this.heap.length);
+    }
+    int i = this.heapSize;
+    this.heapSize += 1;
+    while (i > 0 && this.heap[(i - 1) / 2] > entry) {
+      this.heap[i] = this.heap[(i - 1) / 2];
+      i = (i - 1) / 2;
+    }
+    this.heap[i] = entry;
+  }
+
+  // EFFECT: removes the smallest entry from the heap; returns it
+  long pop() {
+    long top = this.heap[0];
+    this.heapSize -= 1;
+    long last = this.heap[this.heapSize];
+    int i = 0;
+    int child = 1;
+    while (child < this.heapSize) {
+      if (child + 1 < this.heapSize && this.heap[child + 1] < this.heap[child]) {
+        child += 1;
+      }
+      if (this.heap[child] >= last) {
+        break;
+      }
+      this.heap[i] = this.heap[child];
+      i = child;
+      child = 2 * i + 1;
+    }
+    this.heap[i] = last;
+    return top;
+  }
+
+  // times building the hierarchy of a large maze and answering queries on it, against a
+  // breadth first search of the whole maze for each query
+  // arguments: cols rows tileSize queries
+  public static void main(String[] args) {
+    int cols = MazeBatch.argOr(args, 0, 2000);
+    int rows = MazeBatch.argOr(args, 1, 2000);
+    int size = MazeBatch.argOr(args, 2, 64);
+    int queries = MazeBatch.argOr(args, 3, 200);
+    MazeGrid grid = new MazeGrid(cols, rows);
+    new PrimGenerator().generate(grid, 1);
+    long start = System.nanoTime();
+    MazeHierarchy hierarchy = new MazeHierarchy(grid, size);
+    long buildNanos = System.nanoTime() - start;
+    System.out.printf("built %dx%d in %d tiles of %d: %d entrances, %.3fms%n", cols, rows,
+        hierarchy.tiles(), size, hierarchy.cellOf.length, buildNanos / 1e6);
+    Random rand = new Random(1);
+    int[] pairs = new int[2 * queries];
+    for (int i = 0; i < pairs.length; i++) {
+      pairs[i] = rand.nextInt(grid.cells());
+    }
+    long expanded = 0;
+    long steps = 0;
+    start = System.nanoTime();
+    for (int i = 0; i < queries; i++) {
+      steps += hierarchy.path(pairs[2 * i], pairs[2 * i + 1]).length - 1;
+      expanded += hierarchy.expanded;
+    }
+    long tiledNanos = System.nanoTime() - start;
+    MazeParallelBfs bfs = new MazeParallelBfs(ForkJoinPool.commonPool(), 2048,
+        Integer.MAX_VALUE);
+    long check = 0;
+    start = System.nanoTime();
+    for (int i = 0; i < queries; i++) {
+      bfs.solve(grid, pairs[2 * i]);
+      check += bfs.dist[pairs[2 * i + 1]];
+    }
+    long bfsNanos = System.nanoTime() - start;
+    System.out.printf("tiled: %.3fms per query, %d entrances settled per query%n",
+        tiledNanos / 1e6 / queries, expanded / queries);
+    System.out.printf("bfs:   %.3fms per query, same distances %b%n",
+        bfsNanos / 1e6 / queries, steps == check);
+  }
+}
+
+//to represent a breadth first search confined to one tile of a hierarchy,
+//with buffers the size of a whole tile that are kept between searches
+class TileSearch {
+  int[] dist; // the steps from the source to each cell of the tile, row by row, or -1
+  int[] parent; // the cell each cell of the tile was reached from
+  int[] queue;
+  int[] around = new int[4];
+  int cols; // of the whole grid
+  int left; // the column of the tile's left edge
+  int top; // the row of the tile's top edge
+  int width;
+  int height;
+
+  // the constructor
+  TileSearch(int size) {
+    this.dist = new int[size * size];
+    this.parent = new int[size * size];
+    this.queue = new int[size * size];
+  }
+
+  // EFFECT: searches the given tile of the given hierarchy breadth first from the given cell,
+  // never leaving the tile
+  void search(MazeHierarchy h, int tile, int source) {
+    this.cols = h.grid.cols;
+    this.left = tile % h.tilesAcross * h.size;
+    this.top = tile / h.tilesAcross * h.size;
+    this.width = Math.min(h.size, h.grid.cols - this.left);
+    this.height = Math.min(h.size, h.grid.rows - this.top);
+    Arrays.fill(this.dist, 0, this.width * this.height, -1);
+    this.dist[this.local(source)] = 0;
+    this.parent[this.local(source)] = source;
+    this.queue[0] = source;
+    int head = 0;
+    int tail = 1;
+    while (head < tail) {
+      int cell = this.queue[head];
+      head += 1;
+      int count = h.grid.neighbors(cell, this.around);
+      for (int k = 0; k < count; k++) {
+        int next = this.around[k];
+        if (this.inside(next) && this.dist[this.local(next)] < 0) {
+          this.dist[this.local(next)] = this.dist[this.local(cell)] + 1;
+          this.parent[this.local(next)] = cell;
+          this.queue[tail] = next;
+          tail += 1;
+        }
+      }
+    }
+  }
+
+  // determines if the given cell is in the tile last searched
+  boolean inside(int cell) {
+    int x = cell % this.cols - this.left;
+    int y = cell / this.cols - this.top;
+    return x >= 0 && x < this.width && y >= 0 && y < this.height;
+  }
+
+  // the index of the given cell within the tile last searched
+  int local(int cell) {
+    return (cell / this.cols - this.top) * this.width + cell % this.cols - this.left;
+  }
+
+  // the steps from the source of the last search to the given cell of its tile, or -1
+  int distTo(int cell) {
+    return this.dist[this.local(cell)];
+  }
+
+  // the cell the given cell was reached from in the last search
+  int parentOf(int cell) {
+    return this.parent[this.local(cell)];
+  }
+}
+
+//to represent connecting the entrances of the tiles from tile lo to tile hi
+class TileAction extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  MazeHierarchy hierarchy;
+  int lo;
+  int hi;
+
+  // the constructor
+  TileAction(MazeHierarchy hierarchy, int lo, int hi) {
+    this.hierarchy = hierarchy;
+    this.lo = lo;
+    this.hi = hi;
+  }
+
+  // EFFECT: connects a small group of tiles with one search's buffers, or splits them in half
+  protected void compute() {
+    if (this.hi - this.lo <= MazeHierarchy.TILES_PER_TASK) {
+      TileSearch search = new TileSearch(this.hierarchy.size);
+      for (int t = this.lo; t < this.hi; t++) {
+        this.hierarchy.connect(t, search);
+      }
+    }
+    else {
+      int mid = (this.lo + this.hi) >>> 1;
+      TileAction.invokeAll(new TileAction(this.hierarchy, this.lo, mid),
+          new TileAction(this.hierarchy, mid, this.hi));
+    }
+  }
+}
+
+//to represent examples and tests of the tiled maze hierarchy
+class ExamplesMazeHierarchy {
+  ExamplesMazeHierarchy() {
+  }
+
+  // makes a 4x2 grid whose left tile of 2x2 is only connected through the right tile
+  //   0 - 1 - 2 - 3
+  //           |   |
+  //   4 - 5 - 6   7
+  MazeGrid detour() {
+    MazeGrid grid = new MazeGrid(4, 2);
+    grid.open(0, 1);
+    grid.open(1, 2);
+    grid.open(2, 3);
+    grid.open(2, 6);
+    grid.open(3, 7);
+    grid.open(5, 6);
+    grid.open(4, 5);
+    return grid;
+  }
+
+  // to test the findEntrances and connect methods in the MazeHierarchy class
+  void testEntrances(Tester t) {
+    MazeHierarchy h = new MazeHierarchy(this.detour(), 2);
+    t.checkExpect(h.tiles(), 2);
+    t.checkExpect(h.nodeOf, new int[] { -1, 0, 2, -1, -1, 1, 3, -1 });
+    t.checkExpect(h.cellOf, new int[] { 1, 5, 2, 6 });
+    t.checkExpect(h.tileStart, new int[] { 0, 2, 4 });
+    t.checkExpect(h.dist[0], new int[] { 0, -1, -1, 0 });
+    t.checkExpect(h.dist[1], new int[] { 0, 1, 1, 0 });
+    t.checkExpect(h.tileOf(7), 1);
+    t.checkExpect(h.entrances(1), 2);
+    MazeHierarchy ragged = new MazeHierarchy(new MazeGrid(5, 3), 2);
+    t.checkExpect(ragged.tiles(), 6);
+    t.checkExpect(ragged.tileOf(14), 5);
+    t.checkExpect(ragged.cellOf.length, 0);
+    t.checkConstructorException(
+        new IllegalArgumentException("Invalid arguments passed to constructor."),
+        "MazeHierarchy", this.detour(), 0);
+  }
+
+  // to test the distance and path methods in the MazeHierarchy class
+  void testQueries(Tester t) {
+    MazeHierarchy h = new MazeHierarchy(this.detour(), 2);
+    t.checkExpect(h.distance(0, 4), 5);
+    t.checkExpect(h.path(0, 4), new int[] { 0, 1, 2, 6, 5, 4 });
+    t.checkExpect(h.path(4, 7), new int[] { 4, 5, 6, 2, 3, 7 });
+    t.checkExpect(h.path(0, 1), new int[] { 0, 1 });
+    t.checkExpect(h.path(3, 3), new int[] { 3 });
+    t.checkExpect(h.path(2, 6), new int[] { 2, 6 });
+    MazeGrid split = new MazeGrid(4, 2);
+    split.open(0, 1);
+    split.open(2, 3);
+    MazeHierarchy apart = new MazeHierarchy(split, 2);
+    t.checkExpect(apart.distance(0, 3), -1);
+    t.checkException(new IllegalArgumentException("Cell 0 cannot reach cell 3."), apart,
+        "path", 0, 3);
+    t.checkException(new IllegalArgumentException("Cells 0 and 8 are not both in the maze."),
+        apart, "distance", 0, 8);
+  }
+
+  // to test that the queries agree with the precomputed tree on a large maze,
+  // with tiles that do not divide it evenly and a pool that splits the tiles
+  void testLargeMaze(Tester t) {
+    MazeGrid grid = new MazeGrid(61, 43);
+    new PrimGenerator().generate(grid, 6);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    MazeHierarchy h = new MazeHierarchy(grid, 5, pool);
+    pool.shutdown();
+    MazeTree tree = new MazeTree(grid);
+    Random rand = new Random(3);
+    boolean agree = true;
+    for (int i = 0; i < 300; i++) {
+      int a = rand.nextInt(grid.cells());
+      int b = rand.nextInt(grid.cells());
+      agree = agree && h.distance(a, b) == tree.distance(a, b)
+          && Arrays.equals(h.path(a, b), tree.path(a, b));
+    }
+    t.checkExpect(agree, true);
+  }
+
+  // to test that the queries find shortest paths when there are many paths
+  void testOpenGrid(Tester t) {
+    MazeGrid grid = new MazeGrid(23, 17);
+    for (int i = 0; i < grid.cells(); i++) {
+      if (i % 23 != 22) {
+        grid.open(i, i + 1);
+      }
+      if (i + 23 < grid.cells()) {
+        grid.open(i, i + 23);
+      }
+    }
+    MazeHierarchy h = new MazeHierarchy(grid, 4);
+    Random rand = new Random(4);
+    boolean valid = true;
+    for (int i = 0; i < 200; i++) {
+      int a = rand.nextInt(grid.cells());
+      int b = rand.nextInt(grid.cells());
+      int[] path = h.path(a, b);
+      valid = valid && path.length - 1 == Math.abs(a % 23 - b % 23) + Math.abs(a / 23 - b / 23)
+          && path[0] == a && path[path.length - 1] == b;
+      for (int k = 1; k < path.length; k++) {
+        int step = Math.abs(path[k] - path[k - 1]);
+        valid = valid
+            && (step == 23 || (step == 1 && Math.min(path[k], path[k - 1]) % 23 != 22));
+      }
+    }
+    t.checkExpect(valid, true);
+  }
+}
@@ -0,0 +1,577 @@
+import java.util.Arrays;
+import tester.*;
+
+//to represent a way of placing the cells of a grid in memory, as slots of an array
+//neighbors are found from a slot directly, without going back to columns and rows
+interface ICellLayout {
+  // counts the slots the layout needs, which can be more than the cells
+  int slots();
+
+  // the slot of the cell at the given column and row
+  int slot(int x, int y);
+
+  // the column of the cell in the given slot
+  int x(int slot);
+
+  // the row of the cell in the given slot
+  int y(int slot);
+
+  // the slot of the cell above the one in the given slot, which must have one
+  int up(int slot);
+
+  // the slot of the cell right of the one in the given slot, which must have one
+  int right(int slot);
+
+  // the slot of the cell below the one in the given slot, which must have one
+  int down(int slot);
+
+  // the slot of the cell left of the one in the given slot, which must have one
+  int left(int slot);
+
+  // the name of the layout
+  String name();
+}
+
+//to represent cells laid out row by row, the order MazeGrid uses
+class RowMajorLayout implements ICellLayout {
+  int cols;
+  int rows;
+
+  // the constructor
+  RowMajorLayout(int cols, int rows) {
+    this.cols = cols;
+    this.rows = rows;
+  }
+
+  // counts the slots this layout needs
+  public int slots() {
+    return this.cols * this.rows;
+  }
+
+  // the slot of the cell at the given column and row
+  public int slot(int x, int y) {
+    return y * this.cols + x;
+  }
+
+  // the column of the cell in the given slot
+  public int x(int slot) {
+    return slot % this.cols;
+  }
+
+  // the row of the cell in the given slot
+  public int y(int slot) {
+    return slot / this.cols;
+  }
+
+  // the slot of the cell above the one in the given slot
+  public int up(int slot) {
+    return slot - this.cols;
+  }
+
+  // the slot of the cell right of the one in the given slot
+  public int right(int slot) {
+    return slot + 1;
+  }
+
+  // the slot of the cell below the one in the given slot
+  public int down(int slot) {
+    return slot + this.cols;
+  }
+
+  // the slot of the cell left of the one in the given slot
+  public int left(int slot) {
+    return slot - 1;
+  }
+
+  // the name of this layout
+  public String name() {
+    return "row-major";
+  }
+}
+
+//to represent cells laid out in square tiles a power of two wide, tile by tile in rows of
+//tiles and row by row within a tile, so a step up or down usually stays in the same few
+//cache lines; tiles on the right and bottom edges are padded
+class TiledLayout implements ICellLayout {
+  int bits; // the tile is 2^bits cells wide
+  int side;
+  int area;
+  int tilesAcross;
+  int tilesDown;
+
+  // the constructor
+  TiledLayout(int cols, int rows, int bits) {
+    if (bits < 0 || bits > 8) {
+      throw new IllegalArgumentException("Invalid arguments passed to constructor.");
+    }
+    this.bits = bits;
+    this.side = 1 << bits;
+    this.area = this.side * this.side;
+    this.tilesAcross = (cols + this.side - 1) >> bits;
+    this.tilesDown = (rows + this.side - 1) >> bits;
+  }
+
+  // counts the slots this layout needs
+  public int slots() {
+    return this.tilesAcross * this.tilesDown * this.area;
+  }
+
+  // the slot of the cell at the given column and row
+  public int slot(int x, int y) {
+    int tile = (y >> this.bits) * this.tilesAcross + (x >> this.bits);
+    return tile * this.area + ((y & (this.side - 1)) << this.bits) + (x & (this.side - 1));
+  }
+
+  // the column of the cell in the given slot
+  public int x(int slot) {
+    return (slot / this.area) % this.tilesAcross * this.side + (slot & (this.side - 1));
+  }
+
+  // the row of the cell in the given slot
+  public int y(int slot) {
+    return (slot / this.area) / this.tilesAcross * this.side
+        + ((slot >> this.bits) & (this.side - 1));
+  }
+
+  // the slot of the cell above the one in the given slot
+  public int up(int slot) {
+    if (((slot >> this.bits) & (this.side - 1)) != 0) {
+      return slot - this.side;
+    }
+    else {
+      return slot + this.area - this.side - this.tilesAcross * this.area;
+    }
+  }
+
+  // the slot of the cell right of the one in the given slot
+  public int right(int slot) {
+    if ((slot & (this.side - 1)) != this.side - 1) {
+      return slot + 1;
+    }
+    else {
+      return slot + this.area - this.side + 1;
+    }
+  }
+
+  // the slot of the cell below the one in the given slot
+  public int down(int slot) {
+    if (((slot >> this.bits) & (this.side - 1)) != this.side - 1) {
+      return slot + this.side;
+    }
+    else {
+      return slot - this.area + this.side + this.tilesAcross * this.area;
+    }
+  }
+
+  // the slot of the cell left of the one in the given slot
+  public int left(int slot) {
+    if ((slot & (this.side - 1)) != 0) {
+      return slot - 1;
+    }
+    else {
+      return slot - this.area + this.side - 1;
+    }
+  }
+
+  // the name of this layout
+  public String name() {
+    return "tiled-" + this.side;
+  }
+}
+
+//to represent cells laid out in Z-order, with the bits of the column and the row interleaved,
+//the column in the even bits; nearby cells in any direction are usually nearby in memory,
+//at the cost of padding the slots out to the Z-order index of the last cell
+//steps are taken on the dilated column or row without separating them
+class MortonLayout implements ICellLayout {
+  static final int X_BITS = 0x55555555;
+  static final int Y_BITS = 0xAAAAAAAA;
+  int cols;
+  int rows;
+
+  // the constructor
+  MortonLayout(int cols, int rows) {
+    if (cols > 1 << 15 || rows > 1 << 15) {
+      throw new IllegalArgumentException("Invalid arguments passed to constructor.");
+    }
+    this.cols = cols;
+    this.rows = rows;
+  }
+
+  // spreads the low 16 bits of the given number into the even bits
+  static int dilate(int n) {
+    int d = n & 0xFFFF;
+    d = (d | (d << 8)) & 0x00FF00FF;
+    d = (d | (d << 4)) & 0x0F0F0F0F;
+    d = (d | (d << 2)) & 0x33333333;
+    return (d | (d << 1)) & 0x55555555;
+  }
+
+  // gathers the even bits of the given number into the low 16 bits
+  static int undilate(int d) {
+    int n = d & 0x55555555;
+    n = (n | (n >>> 1)) & 0x33333333;
+    n = (n | (n >>> 2)) & 0x0F0F0F0F;
+    n = (n | (n >>> 4)) & 0x00FF00FF;
+    return (n | (n >>> 8)) & 0x0000FFFF;
+  }
+
+  // counts the slots this layout needs
+  public int slots() {
+    return this.slot(this.cols - 1, this.rows - 1) + 1;
+  }
+
+  // the slot of the cell at the given column and row
+  public int slot(int x, int y) {
+    return MortonLayout.dilate(x) | (MortonLayout.dilate(y) << 1);
+  }
+
+  // the column of the cell in the given slot
+  public int x(int slot) {
+    return MortonLayout.undilate(slot);
+  }
+
+  // the row of the cell in the given slot
+  public int y(int slot) {
+    return MortonLayout.undilate(slot >>> 1);
+  }
+
+  // the slot of the cell above the one in the given slot
+  public int up(int slot) {
+    return (((slot & MortonLayout.Y_BITS) - 2) & MortonLayout.Y_BITS)
+        | (slot & MortonLayout.X_BITS);
+  }
+
+  // the slot of the cell right of the one in the given slot
+  public int right(int slot) {
+    return (((slot | MortonLayout.Y_BITS) + 1) & MortonLayout.X_BITS)
+        | (slot & MortonLayout.Y_BITS);
+  }
+
+  // the slot of the cell below the one in the given slot
+  public int down(int slot) {
+    return (((slot | MortonLayout.X_BITS) + 2) & MortonLayout.Y_BITS)
+        | (slot & MortonLayout.X_BITS);
+  }
+
+  // the slot of the cell left of the one in the given slot
+  public int left(int slot) {
+    return (((slot & MortonLayout.X_BITS) - 1) & MortonLayout.X_BITS)
+        | (slot & MortonLayout.Y_BITS);
+  }
+
+  // the name of this layout
+  public String name() {
+    return "morton";
+  }
+}
+
+//to represent the passages of a maze stored in the slots of a layout, one byte per slot
+//each slot records all four of its open sides, so a search reads only the slot it expands
+//and never needs the column or row; padding slots stay closed
+class LayoutGrid {
+  static final byte UP = 1;
+  static final byte RIGHT = 2;
+  static final byte DOWN = 4;
+  static final byte LEFT = 8;
+  ICellLayout layout;
+  int cols;
+  int rows;
+  byte[] open;
+
+  // the constructor, copying the passages of the given grid into the given layout
+  LayoutGrid(MazeGrid grid, ICellLayout layout) {
+    this.layout = layout;
+    this.cols = grid.cols;
+    this.rows = grid.rows;
+    this.open = new byte[layout.slots()];
+    for (int i = 0; i < grid.cells(); i++) {
+      int x = i % grid.cols;
+      int y = i / grid.cols;
+      int slot = layout.slot(x, y);
+      if (grid.canGoRight(i)) {
+        this.open[slot] |= LayoutGrid.RIGHT;
+        this.open[layout.slot(x + 1, y)] |= LayoutGrid.LEFT;
+      }
+      if (grid.canGoDown(i)) {
+        this.open[slot] |= LayoutGrid.DOWN;
+        this.open[layout.slot(x, y + 1)] |= LayoutGrid.UP;
+      }
+    }
+  }
+
+  // EFFECT: writes the slots of the open neighbors of the cell in the given slot into out,
+  // in the order up, right, down, left, and returns how many there are
+  int neighbors(int slot, int[] out) {
+    int sides = this.open[slot];
+    int count = 0;
+    if ((sides & LayoutGrid.UP) != 0) {
+      out[count] = this.layout.up(slot);
+      count += 1;
+    }
+    if ((sides & LayoutGrid.RIGHT) != 0) {
+      out[count] = this.layout.right(slot);
+      count += 1;
+    }
+    if ((sides & LayoutGrid.DOWN) != 0) {
+      out[count] = this.layout.down(slot);
+      count += 1;
+    }
+    if ((sides & LayoutGrid.LEFT) != 0) {
+      out[count] = this.layout.left(slot);
+      count += 1;
+    }
+    return count;
+  }
+}
+
+//to represent searches and a spanning tree check over a grid in any layout, with buffers
+//indexed by slot so they share the grid's locality
+class LayoutSearch {
+  int[] dist = new int[0]; // the steps from the source to each slot, or -1
+  int[] work = new int[0];
+  int[] root = new int[0]; // the union-find parent of each slot
+  int[] next = new int[4];
+  int reached;
+
+  // EFFECT: makes the buffers the size of the given grid's slots
+  void prepare(LayoutGrid grid) {
+    if (this.dist.length != grid.open.length) {
+      this.dist = new int[grid.open.length];
+      this.work = new int[grid.open.length];
+      this.root = new int[grid.open.length];
+    }
+    Arrays.fill(this.dist, -1);
+  }
+
+  // EFFECT: searches the given grid breadth first from the given slot, recording the steps
+  // to every cell; returns the steps to the farthest one
+  int bfs(LayoutGrid grid, int source) {
+    this.prepare(grid);
+    this.dist[source] = 0;
+    this.work[0] = source;
+    int head = 0;
+    int tail = 1;
+    while (head < tail) {
+      int slot = this.work[head];
+      head += 1;
+      int count = grid.neighbors(slot, this.next);
+      for (int k = 0; k < count; k++) {
+        int to = this.next[k];
+        if (this.dist[to] < 0) {
+          this.dist[to] = this.dist[slot] + 1;
+          this.work[tail] = to;
+          tail += 1;
+        }
+      }
+    }
+    this.reached = tail;
+    return this.dist[this.work[tail - 1]];
+  }
+
+  // EFFECT: searches the given grid depth first from the given slot, recording the depth at
+  // which each cell is first reached; returns how many cells were reached
+  int dfs(LayoutGrid grid, int source) {
+    this.prepare(grid);
+    this.dist[source] = 0;
+    this.work[0] = source;
+    int top = 1;
+    this.reached = 0;
+    while (top > 0) {
+      top -= 1;
+      int slot = this.work[top];
+      this.reached += 1;
+      int count = grid.neighbors(slot, this.next);
+      for (int k = 0; k < count; k++) {
+        int to = this.next[k];
+        if (this.dist[to] < 0) {
+          this.dist[to] = this.dist[slot] + 1;
+          this.work[top] = to;
+          top += 1;
+        }
+      }
+    }
+    return this.reached;
+  }
+
+  // joins the two ends of every passage in slot order, as the last pass of Kruskal's
+  // algorithm does; returns how many passages joined two separate parts
+  int unionPassages(LayoutGrid grid) {
+    this.prepare(grid);
+    for (int s = 0; s < this.root.length; s++) {
+      this.root[s] = s;
+    }
+    int joined = 0;
+    for (int s = 0; s < grid.open.length; s++) {
+      if ((grid.open[s] & LayoutGrid.RIGHT) != 0 && this.union(s, grid.layout.right(s))) {
+        joined += 1;
+      }
+      if ((grid.open[s] & LayoutGrid.DOWN) != 0 && this.union(s, grid.layout.down(s))) {
+        joined += 1;
+      }
+    }
+    return joined;
+  }
+
+  // EFFECT: joins the parts of the two given slots; returns true if they were separate
+  boolean union(int a, int b) {
+    int ra = this.find(a);
+    int rb = this.find(b);
+    if (ra == rb) {
+      return false;
+    }
+    this.root[ra] = rb;
+    return true;
+  }
+
+  // finds the representative of the given slot's part, halving the path on the way
+  int find(int s) {
+    int at = s;
+    while (this.root[at] != at) {
+      this.root[at] = this.root[this.root[at]];
+      at = this.root[at];
+    }
+    return at;
+  }
+}
+
+//to represent timing searches over the same maze stored in each layout
+class MazeLayouts {
+  // the layouts to compare for a grid of the given size
+  static ICellLayout[] all(int cols, int rows) {
+    return new ICellLayout[] { new RowMajorLayout(cols, rows), new TiledLayout(cols, rows, 3),
+        new TiledLayout(cols, rows, 5), new MortonLayout(cols, rows) };
+  }
+
+  // times breadth first and depth first searches and a union-find pass over a large maze
+  // in each layout, or only in the named one; timing one layout per run keeps the calls
+  // through ICellLayout from seeing more than one class
+  // arguments: cols rows repeats generator layout
+  public static void main(String[] args) {
+    int cols = MazeBatch.argOr(args, 0, 2048);
+    int rows = MazeBatch.argOr(args, 1, 2048);
+    int repeats = MazeBatch.argOr(args, 2, 5);
+    IMazeGenerator generator = new PrimGenerator();
+    if (args.length > 3) {
+      for (IMazeGenerator g : MazeGenerators.all()) {
+        if (g.name().equals(args[3])) {
+          generator = g;
+        }
+      }
+    }
+    MazeGrid grid = new MazeGrid(cols, rows);
+    generator.generate(grid, 1);
+    System.out.printf("%s %dx%d, best of %d%n", generator.name(), cols, rows, repeats);
+    for (ICellLayout layout : MazeLayouts.all(cols, rows)) {
+      if (args.length <= 4 || layout.name().equals(args[4])) {
+        MazeLayouts.time(grid, layout, repeats);
+      }
+    }
+  }
+
+  // prints the best times of the searches over the given maze in the given layout
+  static void time(MazeGrid grid, ICellLayout layout, int repeats) {
+    LayoutGrid cells = new LayoutGrid(grid, layout);
+    LayoutSearch search = new LayoutSearch();
+    long bfs = Long.MAX_VALUE;
+    long dfs = Long.MAX_VALUE;
+    long union = Long.MAX_VALUE;
+    int farthest = 0;
+    for (int r = 0; r <= repeats; r++) {
+      long start = System.nanoTime();
+      farthest = search.bfs(cells, layout.slot(0, 0));
+      long mid = System.nanoTime();
+      search.dfs(cells, layout.slot(0, 0));
+      long end = System.nanoTime();
+      search.unionPassages(cells);
+      long last = System.nanoTime();
+      if (r > 0) {
+        bfs = Math.min(bfs, mid - start);
+        dfs = Math.min(dfs, end - mid);
+        union = Math.min(union, last - end);
+      }
+    }
+    System.out.printf("%-10s slots=%d bfs=%.2fms dfs=%.2fms union=%.2fms farthest=%d%n",
+        layout.name(), layout.slots(), bfs / 1e6, dfs / 1e6, union / 1e6, farthest);
+  }
+}
+
+//to represent examples and tests of the cell layouts
+class ExamplesMazeLayout {
+  ExamplesMazeLayout() {
+  }
+
+  // determines if the given layout places every cell of the given size in its own slot,
+  // finds it again, and steps to the same neighbors as the columns and rows do
+  boolean consistent(ICellLayout layout, int cols, int rows) {
+    boolean valid = true;
+    boolean[] used = new boolean[layout.slots()];
+    for (int y = 0; y < rows; y++) {
+      for (int x = 0; x < cols; x++) {
+        int s = layout.slot(x, y);
+        valid = valid && s >= 0 && s < used.length && !used[s] && layout.x(s) == x
+            && layout.y(s) == y;
+        used[s] = true;
+        if (y > 0) {
+          valid = valid && layout.up(s) == layout.slot(x, y - 1);
+        }
+        if (x < cols - 1) {
+          valid = valid && layout.right(s) == layout.slot(x + 1, y);
+        }
+        if (y < rows - 1) {
+          valid = valid && layout.down(s) == layout.slot(x, y + 1);
+        }
+        if (x > 0) {
+          valid = valid && layout.left(s) == layout.slot(x - 1, y);
+        }
+      }
+    }
+    return valid;
+  }
+
+  // to test the slot, x, y and neighbor methods of every layout
+  void testLayouts(Tester t) {
+    for (ICellLayout layout : MazeLayouts.all(37, 21)) {
+      t.checkExpect(this.consistent(layout, 37, 21), true);
+    }
+    t.checkExpect(this.consistent(new TiledLayout(16, 16, 2), 16, 16), true);
+    t.checkExpect(this.consistent(new MortonLayout(1, 9), 1, 9), true);
+    t.checkExpect(new RowMajorLayout(37, 21).slots(), 777);
+    t.checkExpect(new TiledLayout(37, 21, 3).slots(), 5 * 3 * 64);
+    t.checkExpect(new MortonLayout(4, 4).slots(), 16);
+    t.checkExpect(new MortonLayout(4, 4).slot(3, 1), 7);
+    t.checkExpect(new TiledLayout(8, 8, 2).slot(5, 2), 16 + 8 + 1);
+    t.checkConstructorException(
+        new IllegalArgumentException("Invalid arguments passed to constructor."),
+        "MortonLayout", 1 << 16, 4);
+  }
+
+  // to test the dilate and undilate methods in the MortonLayout class
+  void testDilate(Tester t) {
+    t.checkExpect(MortonLayout.dilate(0b1011), 0b1000101);
+    t.checkExpect(MortonLayout.undilate(0b1000101), 0b1011);
+    t.checkExpect(MortonLayout.undilate(MortonLayout.dilate(0xFFFF)), 0xFFFF);
+  }
+
+  // to test the LayoutGrid class and the searches in the LayoutSearch class
+  // give the same answers in every layout
+  void testSearches(Tester t) {
+    MazeGrid grid = new MazeGrid(37, 21);
+    new PrimGenerator().generate(grid, 3);
+    MazeTree tree = new MazeTree(grid);
+    for (ICellLayout layout : MazeLayouts.all(37, 21)) {
+      LayoutGrid cells = new LayoutGrid(grid, layout);
+      LayoutSearch search = new LayoutSearch();
+      search.bfs(cells, layout.slot(0, 0));
+      boolean same = search.reached == 777;
+      for (int i = 0; i < 777; i++) {
+        same = same && search.dist[layout.slot(i % 37, i / 37)] == tree.depth[i];
+      }
+      t.checkExpect(same, true);
+      t.checkExpect(search.dfs(cells, layout.slot(36, 20)), 777);
+      t.checkExpect(search.unionPassages(cells), 776);
+    }
+    LayoutGrid corner = new LayoutGrid(new ExamplesMazeTree().comb(), new RowMajorLayout(3, 2));
+    t.checkExpect(corner.open, new byte[] { 6, 14, 12, 1, 1, 1 });
+  }
+}
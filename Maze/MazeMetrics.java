@@ -0,0 +1,240 @@
+import java.util.Random;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import tester.*;
+
+//to represent the search, render and minimum spanning tree measurements of a Graph
+class MazeMetrics {
+  boolean enabled; // record search and render timings every tick
+  boolean jfr; // also commit JFR events
+
+  // search
+  long ticks;
+  long searchNanos; // time spent in onTick
+  long expansions; // vertices visited by solve
+  int worklistSize;
+  int peakWorklist;
+  int visitedCount;
+
+  // rendering
+  long frames;
+  long renderNanos; // time spent in makeScene
+
+  // minimum spanning tree construction, always recorded
+  long collectNanos;
+  long sortNanos;
+  long unionFindNanos;
+  int edgeCount;
+  int mstSize;
+
+  // the constructor, switched on by the maze.metrics and maze.jfr system properties
+  MazeMetrics() {
+    this(Boolean.getBoolean("maze.metrics"), Boolean.getBoolean("maze.jfr"));
+  }
+
+  // the constructor
+  MazeMetrics(boolean enabled, boolean jfr) {
+    this.enabled = enabled;
+    this.jfr = jfr;
+  }
+
+  // EFFECT: records one search tick that started at the given time
+  void recordSearch(long start, int worklistSize, int visitedCount, int expanded) {
+    long nanos = System.nanoTime() - start;
+    this.ticks += 1;
+    this.searchNanos += nanos;
+    this.expansions += expanded;
+    this.worklistSize = worklistSize;
+    this.peakWorklist = Math.max(this.peakWorklist, worklistSize);
+    this.visitedCount = visitedCount;
+    if (this.jfr) {
+      MazeSearchEvent event = new MazeSearchEvent();
+      if (event.isEnabled()) {
+        event.nanos = nanos;
+        event.worklist = worklistSize;
+        event.visited = visitedCount;
+        event.expanded = expanded;
+        event.commit();
+      }
+    }
+  }
+
+  // EFFECT: records one frame rendered by makeScene that started at the given time
+  void recordRender(long start) {
+    long nanos = System.nanoTime() - start;
+    this.frames += 1;
+    this.renderNanos += nanos;
+    if (this.jfr) {
+      MazeRenderEvent event = new MazeRenderEvent();
+      if (event.isEnabled()) {
+        event.nanos = nanos;
+        event.commit();
+      }
+    }
+  }
+
+  // EFFECT: records the phases of one minimum spanning tree construction
+  void recordMst(long collectNanos, long sortNanos, long unionFindNanos, int edgeCount,
+      int mstSize) {
+    this.collectNanos = collectNanos;
+    this.sortNanos = sortNanos;
+    this.unionFindNanos = unionFindNanos;
+    this.edgeCount = edgeCount;
+    this.mstSize = mstSize;
+    if (this.jfr) {
+      MazeMstEvent event = new MazeMstEvent();
+      if (event.isEnabled()) {
+        event.collectNanos = collectNanos;
+        event.sortNanos = sortNanos;
+        event.unionFindNanos = unionFindNanos;
+        event.edges = edgeCount;
+        event.commit();
+      }
+    }
+  }
+
+  // EFFECT: clears the search and render counters, keeping the last tree construction
+  void resetSearch() {
+    this.ticks = 0;
+    this.searchNanos = 0;
+    this.expansions = 0;
+    this.worklistSize = 0;
+    this.peakWorklist = 0;
+    this.visitedCount = 0;
+    this.frames = 0;
+    this.renderNanos = 0;
+  }
+
+  // computes how many vertices the search visits per second of search time
+  double expansionsPerSecond() {
+    if (this.searchNanos == 0) {
+      return 0;
+    }
+    else {
+      return this.expansions * 1e9 / this.searchNanos;
+    }
+  }
+
+  // describes these metrics
+  String report() {
+    return String.format("mst: edges=%d tree=%d collect=%.3fms sort=%.3fms union-find=%.3fms%n"
+        + "search: ticks=%d expansions=%d (%.0f/s) visited=%d worklist=%d (peak %d) "
+        + "time=%.3fms%n"
+        + "render: frames=%d time=%.3fms%n",
+        this.edgeCount, this.mstSize, this.collectNanos / 1e6, this.sortNanos / 1e6,
+        this.unionFindNanos / 1e6, this.ticks, this.expansions, this.expansionsPerSecond(),
+        this.visitedCount, this.worklistSize, this.peakWorklist, this.searchNanos / 1e6,
+        this.frames, this.renderNanos / 1e6);
+  }
+}
+
+//to represent the JFR event for one search tick of a Graph
+@Name("maze.Search")
+@Label("Maze Search Tick")
+@Category("Maze")
+class MazeSearchEvent extends Event {
+  @Label("Nanoseconds")
+  long nanos;
+
+  @Label("Worklist Size")
+  int worklist;
+
+  @Label("Visited")
+  int visited;
+
+  @Label("Expanded")
+  int expanded;
+}
+
+//to represent the JFR event for one frame rendered by a Graph
+@Name("maze.Render")
+@Label("Maze Render")
+@Category("Maze")
+class MazeRenderEvent extends Event {
+  @Label("Nanoseconds")
+  long nanos;
+}
+
+//to represent the JFR event for one minimum spanning tree construction
+@Name("maze.Mst")
+@Label("Maze Spanning Tree")
+@Category("Maze")
+class MazeMstEvent extends Event {
+  @Label("Edge Collection Nanoseconds")
+  long collectNanos;
+
+  @Label("Sort Nanoseconds")
+  long sortNanos;
+
+  @Label("Union-Find Nanoseconds")
+  long unionFindNanos;
+
+  @Label("Edges")
+  int edges;
+}
+
+//to represent examples and tests of the maze metrics
+class ExamplesMazeMetrics {
+  ExamplesMazeMetrics() {
+  }
+
+  // to test the recordSearch method in the MazeMetrics class
+  void testRecordSearch(Tester t) {
+    MazeMetrics m = new MazeMetrics(true, false);
+    m.recordSearch(System.nanoTime(), 4, 2, 1);
+    m.recordSearch(System.nanoTime(), 3, 3, 0);
+    t.checkExpect(m.ticks, 2L);
+    t.checkExpect(m.expansions, 1L);
+    t.checkExpect(m.worklistSize, 3);
+    t.checkExpect(m.peakWorklist, 4);
+    t.checkExpect(m.visitedCount, 3);
+  }
+
+  // to test the recordRender method in the MazeMetrics class
+  void testRecordRender(Tester t) {
+    MazeMetrics m = new MazeMetrics(true, false);
+    m.recordRender(System.nanoTime());
+    t.checkExpect(m.frames, 1L);
+    t.checkExpect(m.renderNanos >= 0, true);
+  }
+
+  // to test the recordMst and resetSearch methods in the MazeMetrics class
+  void testRecordMst(Tester t) {
+    MazeMetrics m = new MazeMetrics(true, false);
+    m.recordMst(1, 2, 3, 180, 99);
+    m.recordSearch(System.nanoTime(), 1, 1, 1);
+    m.resetSearch();
+    t.checkExpect(m.edgeCount, 180);
+    t.checkExpect(m.mstSize, 99);
+    t.checkExpect(m.sortNanos, 2L);
+    t.checkExpect(m.ticks, 0L);
+    t.checkExpect(m.expansions, 0L);
+  }
+
+  // to test the expansionsPerSecond method in the MazeMetrics class
+  void testExpansionsPerSecond(Tester t) {
+    MazeMetrics m = new MazeMetrics(true, false);
+    t.checkExpect(m.expansionsPerSecond(), 0.0);
+    m.expansions = 10;
+    m.searchNanos = 500000000L;
+    t.checkExpect(m.expansionsPerSecond(), 20.0);
+  }
+
+  // to test that a Graph fills in its metrics
+  void testGraphMetrics(Tester t) {
+    Graph g = new Graph(10, 10, new Random(5));
+    g.metrics.enabled = true;
+    g.onKeyEvent("b");
+    g.onTick();
+    g.onTick();
+    g.makeScene();
+    t.checkExpect(g.metrics.edgeCount, 180);
+    t.checkExpect(g.metrics.mstSize, 99);
+    t.checkExpect(g.metrics.ticks, 2L);
+    t.checkExpect(g.metrics.expansions, 2L);
+    t.checkExpect(g.metrics.visitedCount, 2);
+    t.checkExpect(g.metrics.frames, 1L);
+  }
+}
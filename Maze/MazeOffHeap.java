@@ -0,0 +1,566 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import tester.*;
+
+//to represent bytes kept outside the Java heap, indexed by long, as a run of buffers of
+//one gigabyte each so the total is not limited by the size of an int
+//the buffers are either direct or mapped from a file, and are never moved or scanned by
+//the garbage collector
+class OffHeapBytes {
+  static final int CHUNK_BITS = 30;
+  static final long CHUNK = 1L << OffHeapBytes.CHUNK_BITS;
+  long length;
+  ByteBuffer[] chunks;
+
+  // the constructor
+  OffHeapBytes(long length, ByteBuffer[] chunks) {
+    this.length = length;
+    this.chunks = chunks;
+  }
+
+  // makes the given number of zeroed bytes in direct buffers
+  static OffHeapBytes direct(long length) {
+    ByteBuffer[] chunks = new ByteBuffer[OffHeapBytes.chunksFor(length)];
+    for (int c = 0; c < chunks.length; c++) {
+      chunks[c] = ByteBuffer.allocateDirect(OffHeapBytes.chunkLength(length, c));
+    }
+    return new OffHeapBytes(length, chunks);
+  }
+
+  // maps the given number of bytes of the given file, from the given offset, growing the
+  // file if it is shorter; what is written to the bytes is written to the file
+  static OffHeapBytes mapped(Path file, long offset, long length) throws IOException {
+    ByteBuffer[] chunks = new ByteBuffer[OffHeapBytes.chunksFor(length)];
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      for (int c = 0; c < chunks.length; c++) {
+        chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE,
+            offset + c * OffHeapBytes.CHUNK, OffHeapBytes.chunkLength(length, c));
+      }
+    }
+    return new OffHeapBytes(length, chunks);
+  }
+
+  // counts the buffers needed for the given number of bytes
+  static int chunksFor(long length) {
+    return (int) ((length + OffHeapBytes.CHUNK - 1) >>> OffHeapBytes.CHUNK_BITS);
+  }
+
+  // the length of the given buffer of the given number of bytes
+  static int chunkLength(long length, int c) {
+    return (int) Math.min(OffHeapBytes.CHUNK, length - c * OffHeapBytes.CHUNK);
+  }
+
+  // the byte at the given index
+  byte get(long i) {
+    return this.chunks[(int) (i >>> OffHeapBytes.CHUNK_BITS)].get((int) (i
+        & (OffHeapBytes.CHUNK - 1)));
+  }
+
+  // EFFECT: sets the byte at the given index
+  void set(long i, byte b) {
+    this.chunks[(int) (i >>> OffHeapBytes.CHUNK_BITS)].put((int) (i & (OffHeapBytes.CHUNK - 1)),
+        b);
+  }
+
+  // EFFECT: sets every byte to the given one, a page at a time
+  void fill(byte b) {
+    byte[] page = new byte[1 << 16];
+    Arrays.fill(page, b);
+    for (ByteBuffer chunk : this.chunks) {
+      for (int at = 0; at < chunk.capacity(); at += page.length) {
+        chunk.put(at, page, 0, Math.min(page.length, chunk.capacity() - at));
+      }
+    }
+  }
+}
+
+//to represent the passages of a maze too large for the heap, one byte per cell off the heap,
+//cells numbered row by row with long indices
+//the low two bits of a cell are its walls, as in MazeGrid; the rest hold search state:
+//whether it has been seen, which way its parent is and whether it is on the solution,
+//so generating and solving need no memory beyond the grid itself
+class BigMazeGrid {
+  static final byte RIGHT = 1;
+  static final byte DOWN = 2;
+  static final byte SEEN = 4;
+  static final int FROM_SHIFT = 3; // two bits for the way back: 0 up, 1 right, 2 down, 3 left
+  static final byte PATH = 32;
+  static final byte WALLS = 3;
+  long cols;
+  long rows;
+  OffHeapBytes cells;
+
+  // the constructor, every wall starts closed
+  BigMazeGrid(long cols, long rows, OffHeapBytes cells) {
+    if (cols < 1 || rows < 1 || cells.length != cols * rows) {
+      throw new IllegalArgumentException("Invalid arguments passed to constructor.");
+    }
+    this.cols = cols;
+    this.rows = rows;
+    this.cells = cells;
+  }
+
+  // makes a grid in direct buffers
+  static BigMazeGrid direct(long cols, long rows) {
+    return new BigMazeGrid(cols, rows, OffHeapBytes.direct(cols * rows));
+  }
+
+  // counts the cells in this grid
+  long cells() {
+    return this.cols * this.rows;
+  }
+
+  // the cell one step from the given one in the given direction, 0 up, 1 right, 2 down,
+  // 3 left, or -1 if that step leaves the grid
+  long step(long i, int direction) {
+    if (direction == 0 && i >= this.cols) {
+      return i - this.cols;
+    }
+    else if (direction == 1 && i % this.cols != this.cols - 1) {
+      return i + 1;
+    }
+    else if (direction == 2 && i + this.cols < this.cells()) {
+      return i + this.cols;
+    }
+    else if (direction == 3 && i % this.cols != 0) {
+      return i - 1;
+    }
+    else {
+      return -1;
+    }
+  }
+
+  // determines if the given cell opens in the given direction
+  boolean canGo(long i, int direction) {
+    if (direction == 0) {
+      return i >= this.cols && (this.cells.get(i - this.cols) & BigMazeGrid.DOWN) != 0;
+    }
+    else if (direction == 1) {
+      return (this.cells.get(i) & BigMazeGrid.RIGHT) != 0;
+    }
+    else if (direction == 2) {
+      return (this.cells.get(i) & BigMazeGrid.DOWN) != 0;
+    }
+    else {
+      return i % this.cols != 0 && (this.cells.get(i - 1) & BigMazeGrid.RIGHT) != 0;
+    }
+  }
+
+  // EFFECT: opens the wall on the given side of the given cell, which must have a neighbor
+  // there
+  void open(long i, int direction) {
+    if (direction == 0) {
+      this.or(i - this.cols, BigMazeGrid.DOWN);
+    }
+    else if (direction == 1) {
+      this.or(i, BigMazeGrid.RIGHT);
+    }
+    else if (direction == 2) {
+      this.or(i, BigMazeGrid.DOWN);
+    }
+    else {
+      this.or(i - 1, BigMazeGrid.RIGHT);
+    }
+  }
+
+  // EFFECT: sets the given bits of the given cell
+  void or(long i, byte bits) {
+    this.cells.set(i, (byte) (this.cells.get(i) | bits));
+  }
+
+  // determines if the given cell has been seen by the current search
+  boolean seen(long i) {
+    return (this.cells.get(i) & BigMazeGrid.SEEN) != 0;
+  }
+
+  // EFFECT: marks the given cell seen, reached by a step in the given direction
+  void reach(long i, int direction) {
+    int back = (direction + 2) & 3;
+    this.or(i, (byte) (BigMazeGrid.SEEN | back << BigMazeGrid.FROM_SHIFT));
+  }
+
+  // the cell the given cell was reached from
+  long parent(long i) {
+    return this.step(i, (this.cells.get(i) >>> BigMazeGrid.FROM_SHIFT) & 3);
+  }
+
+  // EFFECT: forgets every search, keeping the walls
+  void forget() {
+    for (long i = 0; i < this.cells(); i++) {
+      byte b = this.cells.get(i);
+      if ((b & ~BigMazeGrid.WALLS) != 0) {
+        this.cells.set(i, (byte) (b & BigMazeGrid.WALLS));
+      }
+    }
+  }
+
+  // copies the walls of the given grid into direct buffers
+  static BigMazeGrid of(MazeGrid grid) {
+    BigMazeGrid big = BigMazeGrid.direct(grid.cols, grid.rows);
+    for (int i = 0; i < grid.cells(); i++) {
+      big.cells.set(i, grid.open[i]);
+    }
+    return big;
+  }
+
+  // copies the walls of this grid onto the heap, if it is small enough
+  MazeGrid toGrid() {
+    if (this.cells() > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("This maze is too large for the heap.");
+    }
+    MazeGrid grid = new MazeGrid((int) this.cols, (int) this.rows);
+    for (int i = 0; i < grid.cells(); i++) {
+      grid.open[i] = (byte) (this.cells.get(i) & BigMazeGrid.WALLS);
+    }
+    return grid;
+  }
+}
+
+//to represent the recursive backtracker run without a stack over a grid off the heap:
+//it goes back the way each cell records it was reached, so it uses no memory but the grid
+class BigMazeGenerator {
+  long state; // splitmix64
+
+  // EFFECT: carves a perfect maze into the given grid from the top left cell
+  void generate(BigMazeGrid grid, long seed) {
+    this.state = seed;
+    grid.cells.fill((byte) 0);
+    long at = 0;
+    grid.or(at, BigMazeGrid.SEEN);
+    int[] open = new int[4];
+    while (at >= 0) {
+      int count = 0;
+      for (int d = 0; d < 4; d++) {
+        long next = grid.step(at, d);
+        if (next >= 0 && !grid.seen(next)) {
+          open[count] = d;
+          count += 1;
+        }
+      }
+      if (count > 0) {
+        int d = open[this.nextInt(count)];
+        grid.open(at, d);
+        at = grid.step(at, d);
+        grid.reach(at, d);
+      }
+      else if (at == 0) {
+        at = -1;
+      }
+      else {
+        at = grid.parent(at);
+      }
+    }
+  }
+
+  // a random int from 0 up to the given bound
+  int nextInt(int bound) {
+    this.state += 0x9E3779B97F4A7C15L;
+    long z = this.state;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    z = z ^ (z >>> 31);
+    return (int) (((z >>> 32) * bound) >>> 32);
+  }
+}
+
+//to represent a depth first search without a stack over a grid off the heap, from the top
+//left cell to the bottom right one, trying the neighbors of each cell in the order up, right,
+//down, left; the solution is marked in the grid itself
+//MazeSolver pops the neighbor it pushed last, so it tries left first: both find the one
+//solution of a perfect maze, but their visited counts differ
+class BigMazeSolver {
+  long visited; // cells the last search expanded
+  long pathLength; // cells on the solution, both ends included, or 0 if there is none
+
+  // EFFECT: searches the given grid and marks the cells of its solution
+  void solve(BigMazeGrid grid) {
+    grid.forget();
+    long target = grid.cells() - 1;
+    long at = 0;
+    grid.or(at, BigMazeGrid.SEEN);
+    this.visited = 0;
+    this.pathLength = 0;
+    while (at >= 0 && at != target) {
+      long next = -1;
+      int d = 0;
+      while (next < 0 && d < 4) {
+        long to = grid.step(at, d);
+        if (to >= 0 && grid.canGo(at, d) && !grid.seen(to)) {
+          next = to;
+          grid.reach(to, d);
+        }
+        d += 1;
+      }
+      if (next >= 0) {
+        this.visited += 1;
+        at = next;
+      }
+      else if (at == 0) {
+        at = -1;
+      }
+      else {
+        at = grid.parent(at);
+      }
+    }
+    if (at == target) {
+      this.markPath(grid, target);
+    }
+  }
+
+  // EFFECT: marks the cells from the given one back to the top left one as the solution
+  void markPath(BigMazeGrid grid, long end) {
+    long at = end;
+    grid.or(at, BigMazeGrid.PATH);
+    this.pathLength = 1;
+    while (at != 0) {
+      at = grid.parent(at);
+      grid.or(at, BigMazeGrid.PATH);
+      this.pathLength += 1;
+    }
+  }
+}
+
+//to represent saving and loading the walls of grids off the heap, and timing them
+//a file holds the magic number, the columns and the rows, then the walls at two bits per
+//cell, four cells to a byte, written and read a buffer at a time
+class MazeOffHeap {
+  static final int MAGIC = 0x4d5a4731; // "MZG1"
+  static final int HEADER = 20;
+  static final int BUFFER = 1 << 20;
+
+  // EFFECT: writes the walls of the given grid to the given file
+  static void write(BigMazeGrid grid, Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer out = ByteBuffer.allocateDirect(MazeOffHeap.BUFFER).order(ByteOrder.BIG_ENDIAN);
+      out.putInt(MazeOffHeap.MAGIC).putLong(grid.cols).putLong(grid.rows);
+      long n = grid.cells();
+      for (long i = 0; i < n; i += 4) {
+        int packed = 0;
+        for (int k = 0; k < 4 && i + k < n; k++) {
+          packed |= (grid.cells.get(i + k) & BigMazeGrid.WALLS) << (2 * k);
+        }
+        if (!out.hasRemaining()) {
+          MazeOffHeap.drain(channel, out);
+        }
+        out.put((byte) packed);
+      }
+      MazeOffHeap.drain(channel, out);
+    }
+  }
+
+  // EFFECT: writes what the given buffer holds to the given channel, and empties it
+  static void drain(FileChannel channel, ByteBuffer out) throws IOException {
+    out.flip();
+    while (out.hasRemaining()) {
+      channel.write(out);
+    }
+    out.clear();
+  }
+
+  // reads a grid written by write into the given bytes, which must be the size of the grid
+  // the file describes, or into direct buffers if there are none
+  static BigMazeGrid read(Path file, OffHeapBytes into) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer in = ByteBuffer.allocateDirect(MazeOffHeap.BUFFER).order(ByteOrder.BIG_ENDIAN);
+      in.limit(MazeOffHeap.HEADER);
+      MazeOffHeap.fill(channel, in);
+      if (in.getInt() != MazeOffHeap.MAGIC) {
+        throw new IOException("The file " + file + " does not hold a maze.");
+      }
+      long cols = in.getLong();
+      long rows = in.getLong();
+      OffHeapBytes cells = into;
+      if (cells == null) {
+        cells = OffHeapBytes.direct(cols * rows);
+      }
+      BigMazeGrid grid = new BigMazeGrid(cols, rows, cells);
+      in.clear();
+      in.flip();
+      long n = grid.cells();
+      for (long i = 0; i < n; i += 4) {
+        if (!in.hasRemaining()) {
+          in.clear();
+          MazeOffHeap.fill(channel, in);
+        }
+        int packed = in.get();
+        for (int k = 0; k < 4 && i + k < n; k++) {
+          grid.cells.set(i + k, (byte) ((packed >>> (2 * k)) & BigMazeGrid.WALLS));
+        }
+      }
+      return grid;
+    }
+  }
+
+  // EFFECT: reads from the given channel until the given buffer is full or the file ends,
+  // then flips the buffer; throws if nothing could be read
+  static void fill(FileChannel channel, ByteBuffer in) throws IOException {
+    int read = 0;
+    while (in.hasRemaining() && read >= 0) {
+      read = channel.read(in);
+    }
+    in.flip();
+    if (!in.hasRemaining()) {
+      throw new IOException("The maze file ends too early.");
+    }
+  }
+
+  // generates, solves, saves and loads a maze off the heap, mapped from a file if one is
+  // given, and times each step
+  // arguments: cols rows [file]
+  public static void main(String[] args) throws IOException {
+    long cols = Long.parseLong(args[0]);
+    long rows = Long.parseLong(args[1]);
+    long start = System.nanoTime();
+    OffHeapBytes cells;
+    if (args.length > 2) {
+      cells = OffHeapBytes.mapped(Path.of(args[2]), 0, cols * rows);
+    }
+    else {
+      cells = OffHeapBytes.direct(cols * rows);
+    }
+    BigMazeGrid grid = new BigMazeGrid(cols, rows, cells);
+    MazeOffHeap.report("allocate", start);
+    start = System.nanoTime();
+    new BigMazeGenerator().generate(grid, 1);
+    MazeOffHeap.report("generate", start);
+    start = System.nanoTime();
+    BigMazeSolver solver = new BigMazeSolver();
+    solver.solve(grid);
+    MazeOffHeap.report("solve", start);
+    System.out.printf("%dx%d: %d cells, path %d, visited %d%n", cols, rows, grid.cells(),
+        solver.pathLength, solver.visited);
+    Path saved = Files.createTempFile("maze", ".mzg");
+    start = System.nanoTime();
+    MazeOffHeap.write(grid, saved);
+    MazeOffHeap.report("write " + Files.size(saved) + " bytes", start);
+    start = System.nanoTime();
+    grid.cells.fill((byte) 0);
+    MazeOffHeap.read(saved, grid.cells);
+    MazeOffHeap.report("read", start);
+    Files.delete(saved);
+    System.out.printf("heap used %dMB%n", (Runtime.getRuntime().totalMemory()
+        - Runtime.getRuntime().freeMemory()) >> 20);
+  }
+
+  // EFFECT: prints how long the named step took since the given time
+  static void report(String step, long start) {
+    System.out.printf("%s: %.3fs%n", step, (System.nanoTime() - start) / 1e9);
+  }
+}
+
+//to represent examples and tests of mazes kept off the heap
+class ExamplesMazeOffHeap {
+  ExamplesMazeOffHeap() {
+  }
+
+  // to test the get, set and fill methods in the OffHeapBytes class
+  void testOffHeapBytes(Tester t) {
+    OffHeapBytes bytes = OffHeapBytes.direct(10);
+    t.checkExpect(bytes.chunks.length, 1);
+    t.checkExpect(bytes.get(9), (byte) 0);
+    bytes.set(9, (byte) 7);
+    t.checkExpect(bytes.get(9), (byte) 7);
+    bytes.fill((byte) 3);
+    t.checkExpect(bytes.get(0), (byte) 3);
+    t.checkExpect(OffHeapBytes.chunksFor(3L << 30), 3);
+    t.checkExpect(OffHeapBytes.chunksFor((2L << 30) + 1), 3);
+    t.checkExpect(OffHeapBytes.chunkLength((2L << 30) + 1, 2), 1);
+  }
+
+  // to test the step, canGo, open, reach and parent methods in the BigMazeGrid class
+  void testGrid(Tester t) {
+    BigMazeGrid grid = BigMazeGrid.direct(3, 2);
+    t.checkExpect(grid.step(0, 0), -1L);
+    t.checkExpect(grid.step(0, 1), 1L);
+    t.checkExpect(grid.step(2, 1), -1L);
+    t.checkExpect(grid.step(1, 2), 4L);
+    t.checkExpect(grid.step(4, 2), -1L);
+    t.checkExpect(grid.step(3, 3), -1L);
+    grid.open(4, 0);
+    grid.open(4, 3);
+    t.checkExpect(grid.canGo(1, 2), true);
+    t.checkExpect(grid.canGo(3, 1), true);
+    t.checkExpect(grid.canGo(4, 1), false);
+    grid.reach(4, 2);
+    t.checkExpect(grid.seen(4), true);
+    t.checkExpect(grid.parent(4), 1L);
+    grid.forget();
+    t.checkExpect(grid.seen(4), false);
+    t.checkExpect(grid.toGrid().open, new byte[] { 0, 2, 0, 1, 0, 0 });
+    t.checkConstructorException(
+        new IllegalArgumentException("Invalid arguments passed to constructor."),
+        "BigMazeGrid", 3L, 2L, OffHeapBytes.direct(5));
+  }
+
+  // to test the generate method in the BigMazeGenerator class
+  void testGenerate(Tester t) {
+    BigMazeGrid grid = BigMazeGrid.direct(31, 17);
+    new BigMazeGenerator().generate(grid, 5);
+    MazeGrid copy = grid.toGrid();
+    MazeTree tree = new MazeTree(copy);
+    int passages = 0;
+    boolean reached = true;
+    for (int i = 0; i < copy.cells(); i++) {
+      passages += Integer.bitCount(copy.open[i]);
+      reached = reached && tree.depth[i] >= 0;
+    }
+    t.checkExpect(passages, 31 * 17 - 1);
+    t.checkExpect(reached, true);
+    BigMazeGrid again = BigMazeGrid.direct(31, 17);
+    new BigMazeGenerator().generate(again, 5);
+    t.checkExpect(again.toGrid().open, copy.open);
+  }
+
+  // to test the solve method in the BigMazeSolver class
+  void testSolve(Tester t) {
+    MazeGrid grid = new MazeGrid(40, 25);
+    new PrimGenerator().generate(grid, 2);
+    BigMazeGrid big = BigMazeGrid.of(grid);
+    BigMazeSolver solver = new BigMazeSolver();
+    solver.solve(big);
+    MazeSolver heap = new MazeSolver();
+    heap.solve(grid, false);
+    t.checkExpect(solver.pathLength, (long) heap.pathLength);
+    int[] path = heap.pathCells(999);
+    boolean marked = true;
+    for (int i = 0; i < path.length; i++) {
+      marked = marked && (big.cells.get(path[i]) & BigMazeGrid.PATH) != 0;
+    }
+    t.checkExpect(marked, true);
+    solver.solve(BigMazeGrid.direct(2, 2));
+    t.checkExpect(solver.pathLength, 0L);
+  }
+
+  // to test the write and read methods in the MazeOffHeap class, and mapping a file
+  void testFile(Tester t) throws IOException {
+    Path file = Files.createTempFile("maze", ".mzg");
+    Path mapped = Files.createTempFile("maze", ".bin");
+    BigMazeGrid grid = BigMazeGrid.direct(13, 7);
+    new BigMazeGenerator().generate(grid, 9);
+    MazeOffHeap.write(grid, file);
+    t.checkExpect(Files.size(file), 20L + 23);
+    BigMazeGrid loaded = MazeOffHeap.read(file, OffHeapBytes.mapped(mapped, 0, 91));
+    t.checkExpect(loaded.toGrid().open, grid.toGrid().open);
+    t.checkExpect(Files.size(mapped), 91L);
+    t.checkExpect(Files.readAllBytes(mapped)[0], loaded.cells.get(0));
+    Files.write(file, new byte[] { 1, 2, 3, 4 });
+    String message = "";
+    try {
+      MazeOffHeap.read(file, null);
+    }
+    catch (IOException e) {
+      message = e.getMessage();
+    }
+    t.checkExpect(message, "The file " + file + " does not hold a maze.");
+    Files.delete(file);
+    Files.delete(mapped);
+  }
+}
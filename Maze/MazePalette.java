@@ -0,0 +1,58 @@
+import java.awt.Color;
+import tester.*;
+
+//to represent the display states a cell can be in, one byte each, and the colors they are
+//drawn in; every cell shares these colors, so marking a cell never makes a Color
+class MazePalette {
+  static final byte UNVISITED = 0;
+  static final byte VISITED = 1;
+  static final byte PATH = 2;
+  static final byte START = 3;
+  static final byte GOAL = 4;
+
+  static final Color[] COLORS = { Color.LIGHT_GRAY, new Color(150, 180, 255), Color.blue,
+      Color.GREEN, Color.MAGENTA };
+
+  // the color the given state is drawn in
+  static Color colorOf(byte state) {
+    return MazePalette.COLORS[state];
+  }
+
+  // the state a cell starts in, given its number and how many cells there are
+  static byte startState(int cell, int cells) {
+    if (cell == 0) {
+      return MazePalette.START;
+    }
+    else if (cell == cells - 1) {
+      return MazePalette.GOAL;
+    }
+    else {
+      return MazePalette.UNVISITED;
+    }
+  }
+}
+
+//to represent examples and tests of the maze palette
+class ExamplesMazePalette {
+  ExamplesMazePalette() {
+  }
+
+  // to test the colorOf method in the MazePalette class
+  void testColorOf(Tester t) {
+    t.checkExpect(MazePalette.colorOf(MazePalette.UNVISITED), Color.LIGHT_GRAY);
+    t.checkExpect(MazePalette.colorOf(MazePalette.VISITED), new Color(150, 180, 255));
+    t.checkExpect(MazePalette.colorOf(MazePalette.PATH), Color.blue);
+    t.checkExpect(MazePalette.colorOf(MazePalette.START), Color.GREEN);
+    t.checkExpect(MazePalette.colorOf(MazePalette.GOAL), Color.MAGENTA);
+    t.checkExpect(MazePalette.colorOf(MazePalette.VISITED)
+        == MazePalette.colorOf(MazePalette.VISITED), true);
+  }
+
+  // to test the startState method in the MazePalette class
+  void testStartState(Tester t) {
+    t.checkExpect(MazePalette.startState(0, 4), MazePalette.START);
+    t.checkExpect(MazePalette.startState(3, 4), MazePalette.GOAL);
+    t.checkExpect(MazePalette.startState(2, 4), MazePalette.UNVISITED);
+    t.checkExpect(MazePalette.startState(0, 1), MazePalette.START);
+  }
+}
@@ -0,0 +1,288 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+import tester.*;
+
+//to represent a breadth first search that expands a whole level of the frontier at once,
+//splitting the frontier into chunks that run on a ForkJoinPool
+//a cell is claimed by setting its bit in an atomic bitset, so exactly one chunk records its
+//distance and parent; each chunk writes the cells it claims into its own buffer, and the
+//buffers are copied into the next frontier in chunk order
+//small grids and small frontiers are expanded on the calling thread
+class MazeParallelBfs {
+  ForkJoinPool pool;
+  int grain; // frontier cells per chunk, and the largest frontier expanded sequentially
+  int sequentialCells; // grids with fewer cells than this are searched sequentially
+  int[] dist = new int[0]; // the number of steps from the source, or -1 if unreached
+  int[] parent = new int[0]; // the cell each cell was reached from; the source is its own
+  AtomicLongArray seen = new AtomicLongArray(0); // one bit per cell, set once it is claimed
+  int[] frontier = new int[0];
+  int[] next = new int[0];
+  int[][] buffers = new int[0][]; // the cells each chunk claims
+  int[] counts = new int[0]; // how many cells each chunk claimed
+  int levels; // how many levels the last search expanded
+  int reached; // how many cells the last search reached
+
+  // the constructor, with the common pool
+  MazeParallelBfs() {
+    this(ForkJoinPool.commonPool(), 2048, 1 << 16);
+  }
+
+  // the constructor
+  MazeParallelBfs(ForkJoinPool pool, int grain, int sequentialCells) {
+    if (grain < 1 || sequentialCells < 0) {
+      throw new IllegalArgumentException("Invalid arguments passed to constructor.");
+    }
+    this.pool = pool;
+    this.grain = grain;
+    this.sequentialCells = sequentialCells;
+  }
+
+  // EFFECT: finds the distance of every cell from the given source, and the cell it was
+  // reached from, through the open passages of the given grid
+  void solve(MazeGrid grid, int source) {
+    int n = grid.cells();
+    if (this.dist.length != n) {
+      this.dist = new int[n];
+      this.parent = new int[n];
+      this.frontier = new int[n];
+      this.next = new int[n];
+    }
+    Arrays.fill(this.dist, -1);
+    int words = (n + 63) >>> 6;
+    if (this.seen.length() != words) {
+      this.seen = new AtomicLongArray(words);
+    }
+    else {
+      for (int w = 0; w < words; w++) {
+        this.seen.set(w, 0);
+      }
+    }
+    this.claim(source);
+    this.dist[source] = 0;
+    this.parent[source] = source;
+    this.frontier[0] = source;
+    int size = 1;
+    int level = 0;
+    this.reached = 1;
+    int[] around = new int[4];
+    while (size > 0) {
+      int grown;
+      if (n < this.sequentialCells || size <= this.grain) {
+        grown = this.expand(grid, 0, size, level, this.next, around);
+      }
+      else {
+        grown = this.expandParallel(grid, size, level);
+      }
+      int[] swap = this.frontier;
+      this.frontier = this.next;
+      this.next = swap;
+      size = grown;
+      level += 1;
+      this.reached += grown;
+    }
+    this.levels = level;
+  }
+
+  // EFFECT: expands the frontier in chunks on the pool and gathers the cells they claim
+  // into the next frontier; returns the size of the next frontier
+  int expandParallel(MazeGrid grid, int size, int level) {
+    int chunks = (size + this.grain - 1) / this.grain;
+    if (this.buffers.length < chunks) {
+      this.buffers = Arrays.copyOf(this.buffers, chunks);
+      this.counts = new int[chunks];
+    }
+    for (int c = 0; c < chunks; c++) {
+      if (this.buffers[c] == null) {
+        this.buffers[c] = new int[4 * this.grain];
+      }
+    }
+    this.pool.invoke(new FrontierAction(this, grid, 0, chunks, size, level));
+    int grown = 0;
+    for (int c = 0; c < chunks; c++) {
+      System.arraycopy(this.buffers[c], 0, this.next, grown, this.counts[c]);
+      grown += this.counts[c];
+    }
+    return grown;
+  }
+
+  // EFFECT: expands the frontier cells from index lo to index hi, claiming their unreached
+  // neighbors at the next level and writing them into out; returns how many were claimed
+  int expand(MazeGrid grid, int lo, int hi, int level, int[] out, int[] around) {
+    int count = 0;
+    for (int i = lo; i < hi; i++) {
+      int cell = this.frontier[i];
+      int neighbors = grid.neighbors(cell, around);
+      for (int k = 0; k < neighbors; k++) {
+        int to = around[k];
+        if (this.claim(to)) {
+          this.dist[to] = level + 1;
+          this.parent[to] = cell;
+          out[count] = to;
+          count += 1;
+        }
+      }
+    }
+    return count;
+  }
+
+  // EFFECT: sets the bit of the given cell; returns true if this call set it
+  boolean claim(int cell) {
+    int word = cell >>> 6;
+    long bit = 1L << cell;
+    long old = this.seen.get(word);
+    while ((old & bit) == 0) {
+      if (this.seen.compareAndSet(word, old, old | bit)) {
+        return true;
+      }
+      old = this.seen.get(word);
+    }
+    return false;
+  }
+
+  // times the sequential and parallel searches of a large maze
+  // arguments: cols rows repeats
+  public static void main(String[] args) {
+    int cols = MazeBatch.argOr(args, 0, 2000);
+    int rows = MazeBatch.argOr(args, 1, 2000);
+    int repeats = MazeBatch.argOr(args, 2, 10);
+    MazeGrid grid = new MazeGrid(cols, rows);
+    new PrimGenerator().generate(grid, 1);
+    MazeParallelBfs sequential = new MazeParallelBfs(ForkJoinPool.commonPool(), 2048,
+        Integer.MAX_VALUE);
+    MazeParallelBfs parallel = new MazeParallelBfs();
+    String[] names = { "sequential", "parallel" };
+    MazeParallelBfs[] searches = { sequential, parallel };
+    for (int s = 0; s < searches.length; s++) {
+      MazeParallelBfs bfs = searches[s];
+      bfs.solve(grid, 0);
+      long start = System.nanoTime();
+      for (int i = 0; i < repeats; i++) {
+        bfs.solve(grid, 0);
+      }
+      long nanos = System.nanoTime() - start;
+      System.out.printf("%-10s %dx%d: %.3fms per search, %d levels, parallelism %d%n",
+          names[s], cols, rows, nanos / 1e6 / repeats, bfs.levels,
+          bfs.pool.getParallelism());
+    }
+  }
+}
+
+//to represent expanding the chunks of a frontier from chunk lo to chunk hi
+class FrontierAction extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  MazeParallelBfs bfs;
+  MazeGrid grid;
+  int lo;
+  int hi;
+  int size; // of the whole frontier
+  int level;
+
+  // the constructor
+  FrontierAction(MazeParallelBfs bfs, MazeGrid grid, int lo, int hi, int size, int level) {
+    this.bfs = bfs;
+    this.grid = grid;
+    this.lo = lo;
+    this.hi = hi;
+    this.size = size;
+    this.level = level;
+  }
+
+  // EFFECT: expands one chunk, or splits the chunks in half
+  protected void compute() {
+    if (this.hi - this.lo == 1) {
+      int from = this.lo * this.bfs.grain;
+      int to = Math.min(this.size, from + this.bfs.grain);
+      this.bfs.counts[this.lo] = this.bfs.expand(this.grid, from, to, this.level,
+          this.bfs.buffers[this.lo], new int[4]);
+    }
+    else {
+      int mid = (this.lo + this.hi) >>> 1;
+      FrontierAction.invokeAll(new FrontierAction(this.bfs, this.grid, this.lo, mid, this.size,
+          this.level), new FrontierAction(this.bfs, this.grid, mid, this.hi, this.size,
+              this.level));
+    }
+  }
+}
+
+//to represent examples and tests of the parallel breadth first search
+class ExamplesMazeParallelBfs {
+  ExamplesMazeParallelBfs() {
+  }
+
+  // makes a search that takes the parallel path for any frontier of more than 8 cells
+  MazeParallelBfs eager() {
+    return new MazeParallelBfs(new ForkJoinPool(4), 8, 0);
+  }
+
+  // to test the solve method in the MazeParallelBfs class on a small maze
+  void testSolveSmall(Tester t) {
+    MazeGrid grid = new ExamplesMazeTree().comb();
+    MazeParallelBfs bfs = new MazeParallelBfs();
+    bfs.solve(grid, 0);
+    t.checkExpect(bfs.dist, new int[] { 0, 1, 2, 1, 2, 3 });
+    t.checkExpect(bfs.parent, new int[] { 0, 0, 1, 0, 1, 2 });
+    t.checkExpect(bfs.levels, 4);
+    t.checkExpect(bfs.reached, 6);
+    AtomicLongArray seen = bfs.seen;
+    bfs.solve(grid, 4);
+    t.checkExpect(bfs.dist, new int[] { 2, 1, 2, 3, 0, 3 });
+    t.checkExpect(bfs.seen == seen, true);
+    t.checkExpect(bfs.seen.get(0), 63L);
+    MazeGrid split = new MazeGrid(3, 1);
+    split.open(0, 1);
+    bfs.solve(split, 0);
+    t.checkExpect(bfs.dist, new int[] { 0, 1, -1 });
+    t.checkExpect(bfs.reached, 2);
+    t.checkConstructorException(
+        new IllegalArgumentException("Invalid arguments passed to constructor."),
+        "MazeParallelBfs", ForkJoinPool.commonPool(), 0, 10);
+  }
+
+  // to test that the parallel search matches the tree of a large maze
+  void testSolveMaze(Tester t) {
+    MazeGrid grid = new MazeGrid(120, 90);
+    new PrimGenerator().generate(grid, 8);
+    MazeParallelBfs bfs = this.eager();
+    bfs.solve(grid, 0);
+    MazeTree tree = new MazeTree(grid);
+    t.checkExpect(bfs.dist, tree.depth);
+    t.checkExpect(bfs.parent, tree.parent);
+    t.checkExpect(bfs.reached, 120 * 90);
+    bfs.pool.shutdown();
+  }
+
+  // to test that the parallel search gives shortest distances when there are many paths
+  void testSolveOpenGrid(Tester t) {
+    MazeGrid grid = new MazeGrid(80, 60);
+    for (int i = 0; i < grid.cells(); i++) {
+      if (i % 80 != 79) {
+        grid.open(i, i + 1);
+      }
+      if (i + 80 < grid.cells()) {
+        grid.open(i, i + 80);
+      }
+    }
+    MazeParallelBfs bfs = this.eager();
+    bfs.solve(grid, 0);
+    boolean valid = true;
+    for (int i = 1; i < grid.cells(); i++) {
+      valid = valid && bfs.dist[i] == i % 80 + i / 80
+          && bfs.dist[bfs.parent[i]] == bfs.dist[i] - 1;
+    }
+    t.checkExpect(valid, true);
+    t.checkExpect(bfs.levels, 79 + 59 + 1);
+    bfs.pool.shutdown();
+  }
+
+  // to test the claim method in the MazeParallelBfs class
+  void testClaim(Tester t) {
+    MazeParallelBfs bfs = new MazeParallelBfs();
+    bfs.seen = new AtomicLongArray(2);
+    t.checkExpect(bfs.claim(70), true);
+    t.checkExpect(bfs.claim(70), false);
+    t.checkExpect(bfs.claim(6), true);
+    t.checkExpect(bfs.seen.get(1), 1L << 6);
+  }
+}
@@ -0,0 +1,272 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import tester.*;
+
+//to represent a path through a grid as its first cell and the moves from there,
+//two bits a move and 32 moves to a long, in the order up, right, down, left
+//a path of a million steps takes 250 kilobytes instead of a list of a million references
+class PackedPath {
+  static final int UP = 0;
+  static final int RIGHT = 1;
+  static final int DOWN = 2;
+  static final int LEFT = 3;
+  int cols; // of the grid the path is in
+  int start;
+  int steps;
+  long[] moves;
+
+  // the constructor
+  PackedPath(int cols, int start, int steps, long[] moves) {
+    if (cols < 1 || steps < 0 || moves.length < PackedPath.longsFor(steps)) {
+      throw new IllegalArgumentException("Invalid arguments passed to constructor.");
+    }
+    this.cols = cols;
+    this.start = start;
+    this.steps = steps;
+    this.moves = moves;
+  }
+
+  // counts the longs that hold the given number of moves
+  static int longsFor(int steps) {
+    return (steps + 31) >>> 5;
+  }
+
+  // packs the given cells of a grid with the given number of columns, each next to the last
+  static PackedPath of(int[] cells, int cols) {
+    if (cells.length == 0) {
+      throw new IllegalArgumentException("A path needs at least one cell.");
+    }
+    long[] moves = new long[PackedPath.longsFor(cells.length - 1)];
+    for (int k = 1; k < cells.length; k++) {
+      PackedPath.put(moves, k - 1, PackedPath.moveBetween(cells[k - 1], cells[k], cols));
+    }
+    return new PackedPath(cols, cells[0], cells.length - 1, moves);
+  }
+
+  // packs the path from the root of the given parents to the given cell, where the root is
+  // its own parent, as MazeTree, MazeParallelBfs and MazeSolver record them; the moves are
+  // written from the last one back, so no list of cells is made
+  static PackedPath trace(int[] parent, int end, int cols) {
+    int steps = 0;
+    int at = end;
+    while (parent[at] != at) {
+      at = parent[at];
+      steps += 1;
+    }
+    long[] moves = new long[PackedPath.longsFor(steps)];
+    at = end;
+    for (int k = steps - 1; k >= 0; k--) {
+      PackedPath.put(moves, k, PackedPath.moveBetween(parent[at], at, cols));
+      at = parent[at];
+    }
+    return new PackedPath(cols, at, steps, moves);
+  }
+
+  // the move from one cell to the next in a grid with the given number of columns
+  static int moveBetween(int from, int to, int cols) {
+    if (to == from - cols) {
+      return PackedPath.UP;
+    }
+    else if (to == from + 1 && to % cols != 0) {
+      return PackedPath.RIGHT;
+    }
+    else if (to == from + cols) {
+      return PackedPath.DOWN;
+    }
+    else if (to == from - 1 && from % cols != 0) {
+      return PackedPath.LEFT;
+    }
+    else {
+      throw new IllegalArgumentException("Cells " + from + " and " + to + " are not adjacent.");
+    }
+  }
+
+  // EFFECT: writes the given move at the given index of the packed moves
+  static void put(long[] moves, int k, int move) {
+    moves[k >>> 5] |= (long) move << ((k & 31) << 1);
+  }
+
+  // the move at the given index
+  int move(int k) {
+    return (int) (this.moves[k >>> 5] >>> ((k & 31) << 1)) & 3;
+  }
+
+  // the cell the given move leads to from the given cell
+  int step(int cell, int move) {
+    if (move == PackedPath.UP) {
+      return cell - this.cols;
+    }
+    else if (move == PackedPath.RIGHT) {
+      return cell + 1;
+    }
+    else if (move == PackedPath.DOWN) {
+      return cell + this.cols;
+    }
+    else {
+      return cell - 1;
+    }
+  }
+
+  // counts the cells on this path, both ends included
+  int length() {
+    return this.steps + 1;
+  }
+
+  // the last cell of this path, found by taking every move
+  int end() {
+    int at = this.start;
+    for (int k = 0; k < this.steps; k++) {
+      at = this.step(at, this.move(k));
+    }
+    return at;
+  }
+
+  // makes the cells of this path, in order
+  int[] cells() {
+    int[] cells = new int[this.length()];
+    PathCursor cursor = this.cursor();
+    for (int k = 0; k < cells.length; k++) {
+      cells[k] = cursor.next();
+    }
+    return cells;
+  }
+
+  // makes a cursor over the cells of this path, from the first
+  PathCursor cursor() {
+    return new PathCursor(this);
+  }
+
+  // estimates the memory the moves of this path take, in bytes
+  long bytes() {
+    return 8L * this.moves.length;
+  }
+
+  // EFFECT: writes this path to the given stream, the moves as they are packed
+  void write(DataOutputStream out) throws IOException {
+    out.writeInt(this.cols);
+    out.writeInt(this.start);
+    out.writeInt(this.steps);
+    for (int i = 0; i < PackedPath.longsFor(this.steps); i++) {
+      out.writeLong(this.moves[i]);
+    }
+  }
+
+  // reads a path written by write from the given stream
+  static PackedPath read(DataInputStream in) throws IOException {
+    int cols = in.readInt();
+    int start = in.readInt();
+    int steps = in.readInt();
+    long[] moves = new long[PackedPath.longsFor(steps)];
+    for (int i = 0; i < moves.length; i++) {
+      moves[i] = in.readLong();
+    }
+    return new PackedPath(cols, start, steps, moves);
+  }
+}
+
+//to represent walking the cells of a packed path in order, without boxing them
+class PathCursor {
+  PackedPath path;
+  int k; // the index of the next move to take
+  int cell; // the cell next returns
+  boolean started;
+
+  // the constructor
+  PathCursor(PackedPath path) {
+    this.path = path;
+    this.cell = path.start;
+  }
+
+  // determines if there is another cell on the path
+  boolean hasNext() {
+    return !this.started || this.k < this.path.steps;
+  }
+
+  // EFFECT: moves along the path; returns the next cell
+  int next() {
+    if (!this.started) {
+      this.started = true;
+    }
+    else if (this.k < this.path.steps) {
+      this.cell = this.path.step(this.cell, this.path.move(this.k));
+      this.k += 1;
+    }
+    else {
+      throw new IllegalStateException("The path has no more cells.");
+    }
+    return this.cell;
+  }
+}
+
+//to represent examples and tests of packed paths
+class ExamplesMazePath {
+  ExamplesMazePath() {
+  }
+
+  // to test the of, move, end, cells and length methods in the PackedPath class
+  void testOf(Tester t) {
+    PackedPath p = PackedPath.of(new int[] { 3, 0, 1, 4, 5, 2 }, 3);
+    t.checkExpect(p.steps, 5);
+    t.checkExpect(p.length(), 6);
+    t.checkExpect(p.moves, new long[] { 0b00_01_10_01_00L });
+    t.checkExpect(p.move(2), PackedPath.DOWN);
+    t.checkExpect(p.end(), 2);
+    t.checkExpect(p.cells(), new int[] { 3, 0, 1, 4, 5, 2 });
+    PackedPath alone = PackedPath.of(new int[] { 7 }, 3);
+    t.checkExpect(alone.moves.length, 0);
+    t.checkExpect(alone.cells(), new int[] { 7 });
+    t.checkExpect(PackedPath.of(new int[] { 1, 0 }, 3).move(0), PackedPath.LEFT);
+    String message = "";
+    try {
+      PackedPath.moveBetween(2, 3, 3);
+    }
+    catch (IllegalArgumentException e) {
+      message = e.getMessage();
+    }
+    t.checkExpect(message, "Cells 2 and 3 are not adjacent.");
+    t.checkConstructorException(
+        new IllegalArgumentException("Invalid arguments passed to constructor."), "PackedPath",
+        3, 0, 40, new long[1]);
+  }
+
+  // to test the trace method in the PackedPath class on a long path
+  void testTrace(Tester t) {
+    MazeGrid grid = new MazeGrid(50, 40);
+    new BacktrackerGenerator().generate(grid, 7);
+    MazeTree tree = new MazeTree(grid);
+    PackedPath p = PackedPath.trace(tree.parent, 1999, 50);
+    t.checkExpect(p.start, 0);
+    t.checkExpect(p.steps, tree.depth[1999]);
+    t.checkExpect(p.moves.length, (tree.depth[1999] + 31) / 32);
+    t.checkExpect(p.cells(), tree.path(0, 1999));
+    t.checkExpect(PackedPath.of(p.cells(), 50).moves, p.moves);
+    t.checkExpect(PackedPath.trace(tree.parent, 0, 50).steps, 0);
+  }
+
+  // to test the hasNext and next methods in the PathCursor class
+  void testCursor(Tester t) {
+    PathCursor c = PackedPath.of(new int[] { 0, 1, 4 }, 3).cursor();
+    t.checkExpect(c.hasNext(), true);
+    t.checkExpect(c.next(), 0);
+    t.checkExpect(c.next(), 1);
+    t.checkExpect(c.hasNext(), true);
+    t.checkExpect(c.next(), 4);
+    t.checkExpect(c.hasNext(), false);
+    t.checkException(new IllegalStateException("The path has no more cells."), c, "next");
+  }
+
+  // to test the write and read methods in the PackedPath class
+  void testWrite(Tester t) throws IOException {
+    PackedPath p = PackedPath.of(new int[] { 3, 0, 1, 4, 5, 2 }, 3);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    p.write(new DataOutputStream(bytes));
+    t.checkExpect(bytes.size(), 12 + 8);
+    PackedPath back = PackedPath.read(new DataInputStream(
+        new ByteArrayInputStream(bytes.toByteArray())));
+    t.checkExpect(back.cells(), p.cells());
+    t.checkExpect(p.bytes(), 8L);
+  }
+}
@@ -0,0 +1,166 @@
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Random;
+import javalib.impworld.*;
+import javalib.worldimages.*;
+import tester.*;
+
+//to represent the whole maze drawn into one reusable pixel buffer
+//cells are repainted one at a time as their colors change, and the buffer
+//is placed on the scene as a single image
+class MazeRaster {
+  int size; // the side of a cell in pixels
+  int width;
+  int height;
+  int[] pixels; // what is drawn at each pixel, as y * width + x
+  ComputedPixelImage image;
+
+  // the constructor
+  MazeRaster(int cols, int rows, int size) {
+    this.size = size;
+    this.width = cols * size;
+    this.height = rows * size;
+    this.pixels = new int[this.width * this.height];
+    this.image = new ComputedPixelImage(this.width, this.height);
+  }
+
+  // EFFECT: repaints every given cell
+  void paintAll(ArrayList<Vertex> vertices) {
+    for (Vertex v : vertices) {
+      this.paintCell(v);
+    }
+  }
+
+  // EFFECT: repaints the given cell with its color and the walls on its top and left,
+  // plus its bottom and right walls when they are on the border of the maze
+  // a cell's bottom and right walls are the top and left walls of its neighbors
+  void paintCell(Vertex v) {
+    Color color = v.color();
+    for (int py = v.y; py < v.y + this.size; py++) {
+      for (int px = v.x; px < v.x + this.size; px++) {
+        this.set(px, py, color);
+      }
+    }
+    if (v.topEdge) {
+      this.row(v.x, v.y);
+    }
+    if (v.leftEdge) {
+      this.column(v.x, v.y);
+    }
+    if (v.bottomEdge && v.y + this.size >= this.height) {
+      this.row(v.x, this.height - 1);
+    }
+    if (v.rightEdge && v.x + this.size >= this.width) {
+      this.column(this.width - 1, v.y);
+    }
+    // in a spanning tree every corner touches a wall, so corners are always drawn
+    this.set(v.x, v.y, Color.black);
+  }
+
+  // EFFECT: draws a wall one cell long going right from the given pixel
+  void row(int x, int y) {
+    for (int px = x; px < x + this.size; px++) {
+      this.set(px, y, Color.black);
+    }
+  }
+
+  // EFFECT: draws a wall one cell long going down from the given pixel
+  void column(int x, int y) {
+    for (int py = y; py < y + this.size; py++) {
+      this.set(x, py, Color.black);
+    }
+  }
+
+  // EFFECT: sets the given pixel to the given color, skipping the image if it is unchanged
+  void set(int x, int y, Color color) {
+    int rgb = color.getRGB();
+    int i = y * this.width + x;
+    if (this.pixels[i] != rgb) {
+      this.pixels[i] = rgb;
+      this.image.setPixel(x, y, color);
+    }
+  }
+
+  // EFFECT: places this raster so it covers the given scene from its top left corner
+  WorldScene place(WorldScene scene) {
+    scene.placeImageXY(this.image, this.width / 2, this.height / 2);
+    return scene;
+  }
+}
+
+//to represent examples and tests of the maze raster
+class ExamplesMazeRaster {
+  ExamplesMazeRaster() {
+  }
+
+  Vertex v1;
+  Vertex v2;
+  MazeRaster raster;
+
+  // data to be used specifically for testing
+  void init() {
+    this.v1 = new Vertex(0, 0, MazePalette.START);
+    this.v2 = new Vertex(1, 0, MazePalette.UNVISITED);
+    this.v1.right(this.v2);
+    this.v1.rightEdge = false;
+    this.v2.leftEdge = false;
+    this.raster = new MazeRaster(2, 1, Graph.OFFSET);
+  }
+
+  // to test the paintCell method in the MazeRaster class
+  void testPaintCell(Tester t) {
+    this.init();
+    this.raster.paintCell(this.v1);
+    int black = Color.black.getRGB();
+    t.checkExpect(this.raster.pixels[0], black);
+    t.checkExpect(this.raster.pixels[5], black);
+    t.checkExpect(this.raster.pixels[5 * 20], black);
+    t.checkExpect(this.raster.pixels[5 * 20 + 5], Color.GREEN.getRGB());
+    t.checkExpect(this.raster.pixels[9 * 20 + 5], black);
+    t.checkExpect(this.raster.pixels[5 * 20 + 9], Color.GREEN.getRGB());
+    this.raster.paintCell(this.v2);
+    t.checkExpect(this.raster.pixels[5 * 20 + 10], Color.LIGHT_GRAY.getRGB());
+    t.checkExpect(this.raster.pixels[5 * 20 + 19], black);
+    this.v1.state = MazePalette.PATH;
+    this.raster.paintCell(this.v1);
+    t.checkExpect(this.raster.pixels[5 * 20 + 5], Color.blue.getRGB());
+    t.checkExpect(this.raster.pixels[5 * 20 + 10], Color.LIGHT_GRAY.getRGB());
+  }
+
+  // to test the row, column and set methods in the MazeRaster class
+  void testRowColumn(Tester t) {
+    this.init();
+    this.raster.row(10, 3);
+    this.raster.column(2, 0);
+    int black = Color.black.getRGB();
+    t.checkExpect(this.raster.pixels[3 * 20 + 9], 0);
+    t.checkExpect(this.raster.pixels[3 * 20 + 10], black);
+    t.checkExpect(this.raster.pixels[3 * 20 + 19], black);
+    t.checkExpect(this.raster.pixels[9 * 20 + 2], black);
+    this.raster.set(0, 0, Color.red);
+    t.checkExpect(this.raster.pixels[0], Color.red.getRGB());
+  }
+
+  // to test the place method in the MazeRaster class
+  void testPlaceRaster(Tester t) {
+    this.init();
+    WorldScene scene = new WorldScene(20, 10);
+    WorldScene expected = new WorldScene(20, 10);
+    expected.placeImageXY(this.raster.image, 10, 5);
+    t.checkExpect(this.raster.place(scene), expected);
+  }
+
+  // to test that large graphs render through a raster
+  void testGraphRaster(Tester t) {
+    Graph small = new Graph(10, 10, new Random(5));
+    t.checkExpect(small.raster, null);
+    Graph big = new Graph(60, 50, new Random(5));
+    t.checkExpect(big.raster.width, 600);
+    WorldScene expected = new WorldScene(600, 500);
+    expected.placeImageXY(big.raster.image, 300, 250);
+    t.checkExpect(big.makeScene(), expected);
+    big.onKeyEvent("b");
+    big.onTick();
+    t.checkExpect(big.raster.pixels[5 * 600 + 5], new Color(150, 180, 255).getRGB());
+  }
+}
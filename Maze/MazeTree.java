@@ -0,0 +1,294 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import tester.*;
+
+//to represent a perfect maze as a tree rooted at one cell, precomputed once so the distance
+//and the path between any two cells are answered without a new search
+//the depth of each cell is its distance from the root, and the lowest common ancestor of two
+//cells is the shallowest cell between their first visits in an Euler tour of the tree
+//the tour is split into blocks of 32 whose minimums are kept in a sparse table, so a query
+//scans at most two blocks and looks up two table entries
+class MazeTree {
+  static final int BLOCK = 32;
+  int root;
+  int[] parent; // the root is its own parent
+  int[] depth; // the distance from the root
+  int[] euler; // the cells in the order a depth first walk enters and returns to them
+  int[] first; // the index of each cell's first visit in euler
+  int[][] table; // table[j][b] is the index in euler of the shallowest cell in blocks b to
+                 // b + 2^j - 1
+
+  // the constructor, rooting the tree at the top left cell
+  MazeTree(MazeGrid grid) {
+    this(grid, 0);
+  }
+
+  // the constructor
+  MazeTree(MazeGrid grid, int root) {
+    if (root < 0 || root >= grid.cells()) {
+      throw new IllegalArgumentException("Invalid arguments passed to constructor.");
+    }
+    this.root = root;
+    this.walk(grid);
+    this.buildTable();
+  }
+
+  // EFFECT: walks the tree depth first from the root, filling in the parents, depths,
+  // Euler tour and first visits; cells the root cannot reach keep a depth of -1
+  void walk(MazeGrid grid) {
+    int n = grid.cells();
+    this.parent = new int[n];
+    this.depth = new int[n];
+    this.first = new int[n];
+    this.euler = new int[Math.max(1, 2 * n - 1)];
+    Arrays.fill(this.depth, -1);
+    int[] stack = new int[n];
+    byte[] tried = new byte[n]; // how many of each cell's open neighbors have been tried
+    int[] next = new int[4];
+    int size = 0;
+    int top = 0;
+    stack[top] = this.root;
+    top += 1;
+    this.parent[this.root] = this.root;
+    this.depth[this.root] = 0;
+    this.first[this.root] = 0;
+    this.euler[size] = this.root;
+    size += 1;
+    while (top > 0) {
+      int cell = stack[top - 1];
+      int count = grid.neighbors(cell, next);
+      int child = -1;
+      while (child < 0 && tried[cell] < count) {
+        int candidate = next[tried[cell]];
+        tried[cell] += 1;
+        if (this.depth[candidate] < 0) {
+          child = candidate;
+        }
+      }
+      if (child >= 0) {
+        this.parent[child] = cell;
+        this.depth[child] = this.depth[cell] + 1;
+        this.first[child] = size;
+        stack[top] = child;
+        top += 1;
+        this.euler[size] = child;
+        size += 1;
+      }
+      else {
+        top -= 1;
+        if (top > 0) {
+          this.euler[size] = stack[top - 1];
+          size += 1;
+        }
+      }
+    }
+    this.euler = Arrays.copyOf(this.euler, size);
+  }
+
+  // EFFECT: builds the sparse table over the minimums of each block of the Euler tour
+  void buildTable() {
+    int blocks = (this.euler.length + MazeTree.BLOCK - 1) / MazeTree.BLOCK;
+    int levels = 1;
+    while ((1 << levels) <= blocks) {
+      levels += 1;
+    }
+    this.table = new int[levels][];
+    this.table[0] = new int[blocks];
+    for (int b = 0; b < blocks; b++) {
+      int end = Math.min(this.euler.length, (b + 1) * MazeTree.BLOCK) - 1;
+      this.table[0][b] = this.shallowest(b * MazeTree.BLOCK, end);
+    }
+    for (int j = 1; j < levels; j++) {
+      int width = 1 << j;
+      this.table[j] = new int[blocks - width + 1];
+      for (int b = 0; b + width <= blocks; b++) {
+        this.table[j][b] = this.shallower(this.table[j - 1][b],
+            this.table[j - 1][b + width / 2]);
+      }
+    }
+  }
+
+  // the index in euler of the shallower of the two cells at the given indices
+  int shallower(int i, int j) {
+    if (this.depth[this.euler[j]] < this.depth[this.euler[i]]) {
+      return j;
+    }
+    else {
+      return i;
+    }
+  }
+
+  // the index in euler of the shallowest cell from index lo to index hi, by scanning
+  int shallowest(int lo, int hi) {
+    int best = lo;
+    for (int i = lo + 1; i <= hi; i++) {
+      best = this.shallower(best, i);
+    }
+    return best;
+  }
+
+  // the index in euler of the shallowest cell from block lo to block hi, from the table
+  int shallowestBlocks(int lo, int hi) {
+    int level = 31 - Integer.numberOfLeadingZeros(hi - lo + 1);
+    return this.shallower(this.table[level][lo], this.table[level][hi - (1 << level) + 1]);
+  }
+
+  // finds the lowest common ancestor of the two given cells
+  int lca(int a, int b) {
+    this.checkReached(a);
+    this.checkReached(b);
+    int lo = Math.min(this.first[a], this.first[b]);
+    int hi = Math.max(this.first[a], this.first[b]);
+    int loBlock = lo / MazeTree.BLOCK;
+    int hiBlock = hi / MazeTree.BLOCK;
+    int best;
+    if (loBlock == hiBlock) {
+      best = this.shallowest(lo, hi);
+    }
+    else {
+      best = this.shallower(this.shallowest(lo, (loBlock + 1) * MazeTree.BLOCK - 1),
+          this.shallowest(hiBlock * MazeTree.BLOCK, hi));
+      if (loBlock + 1 < hiBlock) {
+        best = this.shallower(best, this.shallowestBlocks(loBlock + 1, hiBlock - 1));
+      }
+    }
+    return this.euler[best];
+  }
+
+  // counts the steps on the path between the two given cells
+  int distance(int a, int b) {
+    return this.depth[a] + this.depth[b] - 2 * this.depth[this.lca(a, b)];
+  }
+
+  // makes the cells on the path from a to b, both included, in that order
+  int[] path(int a, int b) {
+    int meet = this.lca(a, b);
+    int[] path = new int[this.depth[a] + this.depth[b] - 2 * this.depth[meet] + 1];
+    int k = 0;
+    for (int at = a; at != meet; at = this.parent[at]) {
+      path[k] = at;
+      k += 1;
+    }
+    path[k] = meet;
+    int end = path.length - 1;
+    for (int at = b; at != meet; at = this.parent[at]) {
+      path[end] = at;
+      end -= 1;
+    }
+    return path;
+  }
+
+  // EFFECT: throws if the given cell is not connected to the root
+  void checkReached(int cell) {
+    if (this.depth[cell] < 0) {
+      throw new IllegalArgumentException("Cell " + cell + " is not connected to the root.");
+    }
+  }
+}
+
+//to represent examples and tests of the precomputed maze tree
+class ExamplesMazeTree {
+  ExamplesMazeTree() {
+  }
+
+  // makes a 3x2 grid shaped like a comb: the top row is open and each top cell opens down
+  //   0 - 1 - 2
+  //   |   |   |
+  //   3   4   5
+  MazeGrid comb() {
+    MazeGrid grid = new MazeGrid(3, 2);
+    grid.open(0, 1);
+    grid.open(1, 2);
+    grid.open(0, 3);
+    grid.open(1, 4);
+    grid.open(2, 5);
+    return grid;
+  }
+
+  // to test the walk method in the MazeTree class
+  void testWalk(Tester t) {
+    MazeTree tree = new MazeTree(this.comb());
+    t.checkExpect(tree.depth, new int[] { 0, 1, 2, 1, 2, 3 });
+    t.checkExpect(tree.parent, new int[] { 0, 0, 1, 0, 1, 2 });
+    t.checkExpect(tree.euler, new int[] { 0, 1, 2, 5, 2, 1, 4, 1, 0, 3, 0 });
+    t.checkExpect(tree.first, new int[] { 0, 1, 2, 9, 6, 3 });
+    MazeTree rooted = new MazeTree(this.comb(), 4);
+    t.checkExpect(rooted.depth, new int[] { 2, 1, 2, 3, 0, 3 });
+    t.checkConstructorException(
+        new IllegalArgumentException("Invalid arguments passed to constructor."), "MazeTree",
+        this.comb(), 6);
+  }
+
+  // to test the lca, distance and path methods in the MazeTree class
+  void testQueries(Tester t) {
+    MazeTree tree = new MazeTree(this.comb());
+    t.checkExpect(tree.lca(5, 4), 1);
+    t.checkExpect(tree.lca(3, 5), 0);
+    t.checkExpect(tree.lca(2, 5), 2);
+    t.checkExpect(tree.lca(4, 4), 4);
+    t.checkExpect(tree.distance(3, 5), 4);
+    t.checkExpect(tree.distance(4, 4), 0);
+    t.checkExpect(tree.path(3, 5), new int[] { 3, 0, 1, 2, 5 });
+    t.checkExpect(tree.path(5, 4), new int[] { 5, 2, 1, 4 });
+    t.checkExpect(tree.path(1, 1), new int[] { 1 });
+    MazeGrid split = new MazeGrid(2, 1);
+    MazeTree alone = new MazeTree(split);
+    t.checkException(new IllegalArgumentException("Cell 1 is not connected to the root."),
+        alone, "lca", 0, 1);
+  }
+
+  // to test that the block queries agree with walking up the tree on a large maze
+  void testLargeMaze(Tester t) {
+    MazeGrid grid = new MazeGrid(60, 40);
+    new PrimGenerator().generate(grid, 4);
+    MazeTree tree = new MazeTree(grid);
+    t.checkExpect(tree.euler.length, 2 * 2400 - 1);
+    t.checkExpect(tree.table.length, 8);
+    Random rand = new Random(2);
+    boolean agree = true;
+    for (int i = 0; i < 500; i++) {
+      int a = rand.nextInt(2400);
+      int b = rand.nextInt(2400);
+      agree = agree && tree.lca(a, b) == this.slowLca(tree, a, b);
+    }
+    t.checkExpect(agree, true);
+    MazeSolver solver = new MazeSolver();
+    solver.solve(grid, true);
+    t.checkExpect(tree.distance(0, 2399), solver.pathLength - 1);
+    t.checkExpect(tree.path(0, 2399), solver.pathCells(2399));
+  }
+
+  // to test the pathBetween and indexOf methods in the Graph class
+  void testPathBetween(Tester t) {
+    Graph g = new Graph(10, 10, new Random(5));
+    t.checkExpect(g.tree, null);
+    t.checkExpect(g.indexOf(g.vertices.get(37)), 37);
+    ArrayList<Vertex> path = g.pathBetween(g.vertices.get(0), g.vertices.get(99));
+    MazeSolver solver = new MazeSolver();
+    solver.solve(g.grid, true);
+    t.checkExpect(path.size(), solver.pathLength);
+    t.checkExpect(path.get(0), g.vertices.get(0));
+    t.checkExpect(path.get(path.size() - 1), g.vertices.get(99));
+    MazeTree built = g.tree;
+    g.pathBetween(g.vertices.get(50), g.vertices.get(7));
+    t.checkExpect(g.tree == built, true);
+    g.onKeyEvent("r");
+    t.checkExpect(g.tree, null);
+  }
+
+  // finds the lowest common ancestor by walking up from the deeper cell
+  int slowLca(MazeTree tree, int a, int b) {
+    int x = a;
+    int y = b;
+    while (x != y) {
+      if (tree.depth[x] >= tree.depth[y]) {
+        x = tree.parent[x];
+      }
+      else {
+        y = tree.parent[y];
+      }
+    }
+    return x;
+  }
+}
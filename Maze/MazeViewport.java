@@ -0,0 +1,342 @@
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Random;
+import javalib.impworld.*;
+import javalib.worldimages.*;
+import tester.*;
+
+//to represent a window onto part of a maze that is too large to draw whole
+//each frame only the pixels of the window are drawn, so drawing costs the same for any
+//size of maze; zoomed in, a cell covers a square of pixels, and zoomed out past one
+//pixel per cell (the overview) each pixel stands for a square of cells
+class MazeViewport {
+  static final int MAX_CELL_PIXELS = 32;
+  static final int WALL_PIXELS = 3; // cells smaller than this are drawn without walls
+  static final int SAMPLES = 4; // cells looked at per pixel in the overview
+  MazeGrid grid;
+  int width; // of the window in pixels
+  int height;
+  int col; // the cell in the top left corner of the window
+  int row;
+  int cellPixels; // the side of a cell in pixels, when zoomed in
+  int cellsPerPixel; // the side of the square of cells in a pixel, in the overview
+  int[] pixels; // what is drawn at each pixel of the window, as y * width + x
+  ComputedPixelImage image;
+
+  // the constructor
+  MazeViewport(MazeGrid grid, int width, int height, int cellPixels) {
+    if (width < 1 || height < 1 || cellPixels < 1) {
+      throw new IllegalArgumentException("Invalid arguments passed to constructor.");
+    }
+    this.grid = grid;
+    this.width = width;
+    this.height = height;
+    this.cellPixels = Math.min(cellPixels, MazeViewport.MAX_CELL_PIXELS);
+    this.cellsPerPixel = 1;
+    this.pixels = new int[width * height];
+    this.image = new ComputedPixelImage(width, height);
+  }
+
+  // counts the columns of cells that fit in the window, rounding up
+  int visibleCols() {
+    if (this.cellsPerPixel > 1) {
+      return this.width * this.cellsPerPixel;
+    }
+    else {
+      return (this.width + this.cellPixels - 1) / this.cellPixels;
+    }
+  }
+
+  // counts the rows of cells that fit in the window, rounding up
+  int visibleRows() {
+    if (this.cellsPerPixel > 1) {
+      return this.height * this.cellsPerPixel;
+    }
+    else {
+      return (this.height + this.cellPixels - 1) / this.cellPixels;
+    }
+  }
+
+  // EFFECT: moves the window by the given number of cells, keeping it over the maze
+  void pan(int cols, int rows) {
+    this.col += cols;
+    this.row += rows;
+    this.clamp();
+  }
+
+  // EFFECT: moves the window by a quarter of its size in the given direction
+  void panStep(int dx, int dy) {
+    this.pan(dx * Math.max(1, this.visibleCols() / 4), dy * Math.max(1, this.visibleRows() / 4));
+  }
+
+  // EFFECT: makes cells twice as large, keeping the cell in the middle of the window there
+  void zoomIn() {
+    int midCol = this.col + this.visibleCols() / 2;
+    int midRow = this.row + this.visibleRows() / 2;
+    if (this.cellsPerPixel > 1) {
+      this.cellsPerPixel /= 2;
+    }
+    else if (this.cellPixels < MazeViewport.MAX_CELL_PIXELS) {
+      this.cellPixels *= 2;
+    }
+    this.center(midCol, midRow);
+  }
+
+  // EFFECT: makes cells half as large, until the whole maze fits in the window
+  void zoomOut() {
+    int midCol = this.col + this.visibleCols() / 2;
+    int midRow = this.row + this.visibleRows() / 2;
+    if (!this.showsAll()) {
+      if (this.cellPixels > 1) {
+        this.cellPixels /= 2;
+      }
+      else {
+        this.cellsPerPixel *= 2;
+      }
+    }
+    this.center(midCol, midRow);
+  }
+
+  // EFFECT: zooms out until the whole maze fits in the window
+  void overview() {
+    while (!this.showsAll()) {
+      this.zoomOut();
+    }
+    this.col = 0;
+    this.row = 0;
+  }
+
+  // determines if the whole maze fits in the window
+  boolean showsAll() {
+    return this.visibleCols() >= this.grid.cols && this.visibleRows() >= this.grid.rows;
+  }
+
+  // EFFECT: moves the window so the given cell is in its middle, keeping it over the maze
+  void center(int midCol, int midRow) {
+    this.col = midCol - this.visibleCols() / 2;
+    this.row = midRow - this.visibleRows() / 2;
+    this.clamp();
+  }
+
+  // EFFECT: keeps the window over the maze
+  void clamp() {
+    this.col = Math.max(0, Math.min(this.col, this.grid.cols - this.visibleCols()));
+    this.row = Math.max(0, Math.min(this.row, this.grid.rows - this.visibleRows()));
+  }
+
+  // EFFECT: draws the part of the maze under the window, with each cell in the state of
+  // the vertex with the same number; returns the image of the window
+  WorldImage render(ArrayList<Vertex> vertices) {
+    for (int py = 0; py < this.height; py++) {
+      for (int px = 0; px < this.width; px++) {
+        this.set(px, py, this.colorAt(vertices, px, py));
+      }
+    }
+    return this.image;
+  }
+
+  // the color of the given pixel of the window
+  Color colorAt(ArrayList<Vertex> vertices, int px, int py) {
+    if (this.cellsPerPixel > 1) {
+      return this.sample(vertices, this.col + px * this.cellsPerPixel,
+          this.row + py * this.cellsPerPixel);
+    }
+    int c = this.col + px / this.cellPixels;
+    int r = this.row + py / this.cellPixels;
+    if (c >= this.grid.cols || r >= this.grid.rows) {
+      return Color.white;
+    }
+    int cell = r * this.grid.cols + c;
+    if (this.cellPixels >= MazeViewport.WALL_PIXELS
+        && this.onWall(cell, c, r, px % this.cellPixels, py % this.cellPixels)) {
+      return Color.black;
+    }
+    return vertices.get(cell).color();
+  }
+
+  // determines if the given offset into the given cell is on one of its walls
+  // a cell draws its top and left walls, and its bottom and right walls on the border
+  boolean onWall(int cell, int c, int r, int ox, int oy) {
+    int last = this.cellPixels - 1;
+    return (ox == 0 && oy == 0) || (oy == 0 && !this.grid.canGoUp(cell))
+        || (ox == 0 && !this.grid.canGoLeft(cell))
+        || (oy == last && r == this.grid.rows - 1) || (ox == last && c == this.grid.cols - 1);
+  }
+
+  // the color of the square of cells starting at the given cell, from a few cells along
+  // its diagonal; a path or visited cell wins over an unvisited one so the solution
+  // still shows when zoomed out
+  Color sample(ArrayList<Vertex> vertices, int c, int r) {
+    if (c >= this.grid.cols || r >= this.grid.rows) {
+      return Color.white;
+    }
+    int span = Math.min(this.cellsPerPixel, Math.min(this.grid.cols - c, this.grid.rows - r));
+    int step = Math.max(1, span / MazeViewport.SAMPLES);
+    byte best = vertices.get(r * this.grid.cols + c).state;
+    for (int k = step; k < span; k += step) {
+      byte state = vertices.get((r + k) * this.grid.cols + c + k).state;
+      if (MazeViewport.rank(state) > MazeViewport.rank(best)) {
+        best = state;
+      }
+    }
+    return MazePalette.colorOf(best);
+  }
+
+  // how much the given state should show through in the overview
+  static int rank(byte state) {
+    if (state == MazePalette.PATH) {
+      return 4;
+    }
+    else if (state == MazePalette.START || state == MazePalette.GOAL) {
+      return 3;
+    }
+    else if (state == MazePalette.VISITED) {
+      return 2;
+    }
+    else {
+      return 1;
+    }
+  }
+
+  // EFFECT: sets the given pixel to the given color, skipping the image if it is unchanged
+  void set(int x, int y, Color color) {
+    int rgb = color.getRGB();
+    int i = y * this.width + x;
+    if (this.pixels[i] != rgb) {
+      this.pixels[i] = rgb;
+      this.image.setPixel(x, y, color);
+    }
+  }
+
+  // EFFECT: draws the window and places it so it covers the given scene
+  WorldScene place(WorldScene scene, ArrayList<Vertex> vertices) {
+    scene.placeImageXY(this.render(vertices), this.width / 2, this.height / 2);
+    return scene;
+  }
+}
+
+//to represent examples and tests of the maze viewport
+class ExamplesMazeViewport {
+  ExamplesMazeViewport() {
+  }
+
+  // makes the vertices for a maze of the given size
+  ArrayList<Vertex> cells(int cols, int rows) {
+    ArrayList<Vertex> cells = new ArrayList<Vertex>();
+    for (int i = 0; i < cols * rows; i++) {
+      cells.add(new Vertex(i % cols, i / cols, MazePalette.startState(i, cols * rows)));
+    }
+    return cells;
+  }
+
+  // to test the pan, panStep and clamp methods in the MazeViewport class
+  void testPan(Tester t) {
+    MazeViewport view = new MazeViewport(new MazeGrid(100, 80), 200, 100, 10);
+    t.checkExpect(view.visibleCols(), 20);
+    t.checkExpect(view.visibleRows(), 10);
+    view.pan(5, 3);
+    t.checkExpect(view.col, 5);
+    t.checkExpect(view.row, 3);
+    view.pan(-10, 500);
+    t.checkExpect(view.col, 0);
+    t.checkExpect(view.row, 70);
+    view.panStep(1, 0);
+    t.checkExpect(view.col, 5);
+    t.checkConstructorException(
+        new IllegalArgumentException("Invalid arguments passed to constructor."),
+        "MazeViewport", new MazeGrid(2, 2), 0, 10, 10);
+  }
+
+  // to test the zoomIn, zoomOut, overview and showsAll methods in the MazeViewport class
+  void testZoom(Tester t) {
+    MazeViewport view = new MazeViewport(new MazeGrid(1000, 500), 200, 100, 10);
+    view.center(500, 250);
+    t.checkExpect(view.col, 490);
+    view.zoomIn();
+    t.checkExpect(view.cellPixels, 20);
+    t.checkExpect(view.col, 495);
+    view.zoomOut();
+    view.zoomOut();
+    t.checkExpect(view.cellPixels, 5);
+    t.checkExpect(view.showsAll(), false);
+    view.overview();
+    t.checkExpect(view.cellPixels, 1);
+    t.checkExpect(view.cellsPerPixel, 8);
+    t.checkExpect(view.showsAll(), true);
+    t.checkExpect(view.col, 0);
+    view.zoomOut();
+    t.checkExpect(view.cellsPerPixel, 8);
+    view.zoomIn();
+    t.checkExpect(view.cellsPerPixel, 4);
+  }
+
+  // to test the colorAt and onWall methods in the MazeViewport class
+  void testColorAt(Tester t) {
+    MazeGrid grid = new MazeGrid(3, 2);
+    grid.open(0, 1);
+    ArrayList<Vertex> cells = this.cells(3, 2);
+    MazeViewport view = new MazeViewport(grid, 40, 30, 10);
+    t.checkExpect(view.colorAt(cells, 5, 5), Color.GREEN);
+    t.checkExpect(view.colorAt(cells, 5, 0), Color.black);
+    t.checkExpect(view.colorAt(cells, 10, 5), Color.LIGHT_GRAY);
+    t.checkExpect(view.colorAt(cells, 20, 5), Color.black);
+    t.checkExpect(view.colorAt(cells, 25, 15), Color.MAGENTA);
+    t.checkExpect(view.colorAt(cells, 29, 15), Color.black);
+    t.checkExpect(view.colorAt(cells, 35, 5), Color.white);
+    view.cellPixels = 2;
+    t.checkExpect(view.colorAt(cells, 0, 0), Color.GREEN);
+  }
+
+  // to test the sample and rank methods in the MazeViewport class
+  void testSample(Tester t) {
+    ArrayList<Vertex> cells = this.cells(16, 16);
+    MazeViewport view = new MazeViewport(new MazeGrid(16, 16), 2, 2, 1);
+    view.overview();
+    t.checkExpect(view.cellsPerPixel, 8);
+    t.checkExpect(view.sample(cells, 8, 0), Color.LIGHT_GRAY);
+    cells.get(2 * 16 + 10).state = MazePalette.PATH;
+    t.checkExpect(view.sample(cells, 8, 0), Color.blue);
+    t.checkExpect(view.sample(cells, 0, 0), Color.GREEN);
+    t.checkExpect(view.sample(cells, 16, 0), Color.white);
+    t.checkExpect(MazeViewport.rank(MazePalette.VISITED) > MazeViewport.rank(
+        MazePalette.UNVISITED), true);
+  }
+
+  // to test the render method in the MazeViewport class
+  void testRender(Tester t) {
+    MazeGrid grid = new MazeGrid(3, 2);
+    ArrayList<Vertex> cells = this.cells(3, 2);
+    MazeViewport view = new MazeViewport(grid, 40, 30, 10);
+    t.checkExpect(view.render(cells), view.image);
+    t.checkExpect(view.pixels[5 * 40 + 5], Color.GREEN.getRGB());
+    t.checkExpect(view.pixels[25 * 40 + 35], Color.white.getRGB());
+    cells.get(0).state = MazePalette.PATH;
+    view.render(cells);
+    t.checkExpect(view.pixels[5 * 40 + 5], Color.blue.getRGB());
+  }
+
+  // to test that mazes larger than the window render through a viewport
+  void testGraphViewport(Tester t) {
+    int width = Graph.VIEWPORT_WIDTH;
+    Graph.VIEWPORT_WIDTH = 300;
+    Graph g = new Graph(40, 20, new Random(5));
+    Graph.VIEWPORT_WIDTH = width;
+    t.checkExpect(g.raster, null);
+    t.checkExpect(g.viewport.width, 300);
+    t.checkExpect(g.viewport.height, 200);
+    WorldScene expected = new WorldScene(300, 200);
+    expected.placeImageXY(g.viewport.image, 150, 100);
+    t.checkExpect(g.makeScene(), expected);
+    g.onKeyEvent("right");
+    t.checkExpect(g.viewport.col, 7);
+    g.onKeyEvent("-");
+    t.checkExpect(g.viewport.cellPixels, 5);
+    g.onKeyEvent("o");
+    t.checkExpect(g.viewport.showsAll(), true);
+    g.onKeyEvent("+");
+    t.checkExpect(g.viewport.cellPixels, 10);
+    Graph small = new Graph(10, 10, new Random(5));
+    t.checkExpect(small.viewport, null);
+    small.onKeyEvent("right");
+  }
+}
@@ -0,0 +1,117 @@
+//to represent the coordinates and radii of many game pieces in flat arrays,
+//tested against one piece a block at a time
+//the inner block loop has no branches so the JIT can turn it into SIMD code;
+//coordinates are assumed to stay within +-16384 pixels so squares fit in an int
+class CollisionKernel {
+  static final int BLOCK = 8;
+  int[] xs;
+  int[] ys;
+  int[] rs;
+  int maxRadius;
+  // the bounding box of the centers in each full block of BLOCK pieces
+  int[] blockMinX;
+  int[] blockMaxX;
+  int[] blockMinY;
+  int[] blockMaxY;
+
+  // the constructor
+  CollisionKernel(int[] xs, int[] ys, int[] rs) {
+    if (xs.length != ys.length || xs.length != rs.length) {
+      throw new IllegalArgumentException("Coordinate arrays must have the same length.");
+    }
+    this.xs = xs;
+    this.ys = ys;
+    this.rs = rs;
+    this.maxRadius = 0;
+    for (int r : rs) {
+      this.maxRadius = Math.max(this.maxRadius, r);
+    }
+    int blocks = xs.length / CollisionKernel.BLOCK;
+    this.blockMinX = new int[blocks];
+    this.blockMaxX = new int[blocks];
+    this.blockMinY = new int[blocks];
+    this.blockMaxY = new int[blocks];
+    for (int b = 0; b < blocks; b++) {
+      int lo = b * CollisionKernel.BLOCK;
+      this.blockMinX[b] = xs[lo];
+      this.blockMaxX[b] = xs[lo];
+      this.blockMinY[b] = ys[lo];
+      this.blockMaxY[b] = ys[lo];
+      for (int i = lo + 1; i < lo + CollisionKernel.BLOCK; i++) {
+        this.blockMinX[b] = Math.min(this.blockMinX[b], xs[i]);
+        this.blockMaxX[b] = Math.max(this.blockMaxX[b], xs[i]);
+        this.blockMinY[b] = Math.min(this.blockMinY[b], ys[i]);
+        this.blockMaxY[b] = Math.max(this.blockMaxY[b], ys[i]);
+      }
+    }
+  }
+
+  // builds a kernel over the positions and radii of the given pieces, in order
+  static CollisionKernel of(AGamePiece[] pieces) {
+    int[] xs = new int[pieces.length];
+    int[] ys = new int[pieces.length];
+    int[] rs = new int[pieces.length];
+    for (int i = 0; i < pieces.length; i++) {
+      xs[i] = pieces[i].position.x;
+      ys[i] = pieces[i].position.y;
+      rs[i] = pieces[i].radius;
+    }
+    return new CollisionKernel(xs, ys, rs);
+  }
+
+  // determines if a circle at (x, y) with radius r touches any piece in [from, to)
+  boolean anyHit(int x, int y, int r, int from, int to) {
+    int reach = r + this.maxRadius;
+    int i = from;
+    while (i < to && i % CollisionKernel.BLOCK != 0) {
+      if (this.hit(x, y, r, i)) {
+        return true;
+      }
+      i += 1;
+    }
+    while (i + CollisionKernel.BLOCK <= to) {
+      int b = i / CollisionKernel.BLOCK;
+      if (this.blockMinX[b] <= x + reach && this.blockMaxX[b] >= x - reach
+          && this.blockMinY[b] <= y + reach && this.blockMaxY[b] >= y - reach
+          && this.blockHits(x, y, r, i)) {
+        return true;
+      }
+      i += CollisionKernel.BLOCK;
+    }
+    while (i < to) {
+      if (this.hit(x, y, r, i)) {
+        return true;
+      }
+      i += 1;
+    }
+    return false;
+  }
+
+  // determines if a circle at (x, y) with radius r touches any of the BLOCK pieces
+  // starting at i, testing all of them without branching
+  boolean blockHits(int x, int y, int r, int i) {
+    int hits = 0;
+    for (int k = i; k < i + CollisionKernel.BLOCK; k++) {
+      int dx = this.xs[k] - x;
+      int dy = this.ys[k] - y;
+      int reach = this.rs[k] + r;
+      // the sign bit is set exactly when dx^2 + dy^2 <= reach^2
+      hits |= dx * dx + dy * dy - reach * reach - 1;
+    }
+    return hits < 0;
+  }
+
+  // determines if a circle at (x, y) with radius r touches the piece at i
+  boolean hit(int x, int y, int r, int i) {
+    int reach = this.rs[i] + r;
+    int dx = this.xs[i] - x;
+    if (dx > reach || dx < -reach) {
+      return false;
+    }
+    int dy = this.ys[i] - y;
+    if (dy > reach || dy < -reach) {
+      return false;
+    }
+    return dx * dx + dy * dy <= reach * reach;
+  }
+}
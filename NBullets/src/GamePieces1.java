@@ -2,6 +2,10 @@ import tester.*; // The tester library
 import javalib.worldimages.*; // images, like RectangleImage or OverlayImages
 import javalib.funworld.*; // the abstract World class and the big-bang library
 import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 //to represent a position
 class MyPosn extends Posn {
@@ -62,16 +66,28 @@ abstract class AGamePiece implements IGamePiece {
   }
 
   // determines if this game piece has collided with that game piece
+  // rejects pieces whose bounding boxes do not overlap before squaring anything
   public boolean collidesWith(AGamePiece other) {
-    return ((this.position.x - other.position.x) * (this.position.x - other.position.x)
-        + (this.position.y - other.position.y)
-            * (this.position.y - other.position.y)) <= (this.radius + other.radius)
-                * (this.radius + other.radius);
+    int reach = this.radius + other.radius;
+    int dx = this.position.x - other.position.x;
+    if (dx > reach || dx < -reach) {
+      return false;
+    }
+    int dy = this.position.y - other.position.y;
+    if (dy > reach || dy < -reach) {
+      return false;
+    }
+    return dx * dx + dy * dy <= reach * reach;
   }
 
   // explosion of a general game piece
   public ILoGamePiece explode() {
-    return new MtLoGamePiece();
+    return this.explodeOnto(new MtLoGamePiece());
+  }
+
+  // adds the pieces this game piece explodes into to the front of the given list
+  ILoGamePiece explodeOnto(ILoGamePiece rest) {
+    return rest;
   }
 }
 
@@ -113,22 +129,47 @@ class Bullet extends AGamePiece {
   }
 
   @Override
-  // explodes this bullet into the correct amount of bullets
-  public ILoGamePiece explode() {
-    return explodeHelp(this.n + 1);
+  // adds the bullets this bullet explodes into to the front of the given list
+  ILoGamePiece explodeOnto(ILoGamePiece rest) {
+    MyPosn[] velocities = ExplosionTable.velocities(this.n + 1);
+    ILoGamePiece result = rest;
+    for (int k = velocities.length - 1; k >= 0; k--) {
+      result = new ConsLoGamePiece(
+          new Bullet(this.position, velocities[k], this.radius + 2, this.n + 1), result);
+    }
+    return result;
   }
+}
 
-  // helps create the correct amount of new bullets for an explosion
-  private ILoGamePiece explodeHelp(int i) {
-    if (i == 0) {
-      return new MtLoGamePiece();
+//to represent the shared, lazily built fragment velocities of explosions
+class ExplosionTable {
+  // TABLES.get(count) holds the velocities of an explosion into count fragments, or null
+  // until one is first asked for; the list only grows and a table is never replaced
+  private static final ArrayList<MyPosn[]> TABLES = new ArrayList<MyPosn[]>();
+
+  // returns the fragment velocities for an explosion into count fragments,
+  // in the order the fragments appear in the exploded list
+  // the table is shared by every explosion into count fragments, so callers must only read it
+  static synchronized MyPosn[] velocities(int count) {
+    while (ExplosionTable.TABLES.size() <= count) {
+      ExplosionTable.TABLES.add(null);
     }
-    else {
-      MyPosn velocity = new MyPosn((int) (8 * (Math.cos(Math.toRadians(i * 360 / (this.n + 1))))),
-          (int) (8 * (Math.sin(Math.toRadians(i * 360 / (this.n + 1))))));
-      return new ConsLoGamePiece(new Bullet(this.position, velocity, this.radius + 2, this.n + 1),
-          this.explodeHelp(i - 1));
+    if (ExplosionTable.TABLES.get(count) == null) {
+      ExplosionTable.TABLES.set(count, ExplosionTable.build(count));
     }
+    return ExplosionTable.TABLES.get(count);
+  }
+
+  // computes the velocities of an explosion into count fragments,
+  // the fragment at index k travels at an angle of (count - k) * 360 / count degrees
+  static MyPosn[] build(int count) {
+    MyPosn[] table = new MyPosn[count];
+    for (int k = 0; k < count; k++) {
+      int i = count - k;
+      table[k] = new MyPosn((int) (8 * (Math.cos(Math.toRadians(i * 360 / count)))),
+          (int) (8 * (Math.sin(Math.toRadians(i * 360 / count)))));
+    }
+    return table;
   }
 }
 
@@ -163,6 +204,16 @@ interface ILoGamePiece {
 
   // determines if empty
   boolean isEmpty();
+
+  // counts the game pieces in this list
+  int length();
+
+  // adds the first game piece of this list to the end of the given array list,
+  // and returns the rest of this list
+  ILoGamePiece addFirstTo(ArrayList<AGamePiece> acc);
+
+  // returns this list without its first game piece
+  ILoGamePiece withoutFirst();
 }
 
 //to represent an empty list of game pieces
@@ -217,6 +268,21 @@ class MtLoGamePiece implements ILoGamePiece {
   public boolean isEmpty() {
     return true;
   }
+
+  // counts the game pieces in this empty list
+  public int length() {
+    return 0;
+  }
+
+  // there is no first game piece to add
+  public ILoGamePiece addFirstTo(ArrayList<AGamePiece> acc) {
+    return this;
+  }
+
+  // there is no first game piece to drop
+  public ILoGamePiece withoutFirst() {
+    return this;
+  }
 }
 
 //to represent a nonempty list of game pieces 
@@ -288,7 +354,7 @@ class ConsLoGamePiece implements ILoGamePiece {
   // returns a list of all the new bullets created from bullet explosions
   public ILoGamePiece allNewBullets(ILoGamePiece ships) {
     if (ships.collidesWithAny(this.first)) {
-      return this.first.explode().append(this.rest.allNewBullets(ships));
+      return this.first.explodeOnto(this.rest.allNewBullets(ships));
     }
     else {
       return this.rest.allNewBullets(ships);
@@ -299,6 +365,22 @@ class ConsLoGamePiece implements ILoGamePiece {
   public boolean isEmpty() {
     return false;
   }
+
+  // counts the game pieces in this nonempty list
+  public int length() {
+    return 1 + this.rest.length();
+  }
+
+  // adds the first game piece to the given array list and returns the rest
+  public ILoGamePiece addFirstTo(ArrayList<AGamePiece> acc) {
+    acc.add(this.first);
+    return this.rest;
+  }
+
+  // returns the rest of this nonempty list
+  public ILoGamePiece withoutFirst() {
+    return this.rest;
+  }
 }
 
 //to represent examples and test of game pieces
@@ -398,7 +480,9 @@ class ExamplesGamePieces {
   // tests the colidesWith function in the AGamePiece class
   boolean testColidesWith(Tester t) {
     return t.checkExpect(this.bullet1.collidesWith(this.ship1), true)
-        && t.checkExpect(this.bullet2.collidesWith(this.ship3), false);
+        && t.checkExpect(this.bullet2.collidesWith(this.ship3), false)
+        && t.checkExpect(this.ship1.collidesWith(new Ship(new MyPosn(25, 6), true)), true)
+        && t.checkExpect(this.ship1.collidesWith(new Ship(new MyPosn(20, 20), true)), false);
   }
 
   // tests the function explode in the AGamePiece class
@@ -408,6 +492,29 @@ class ExamplesGamePieces {
         && t.checkExpect(this.ship1.explode(), new MtLoGamePiece());
   }
 
+  // tests the function explodeOnto in the AGamePiece class
+  boolean testExplodeOnto(Tester t) {
+    return t.checkExpect(this.ship1.explodeOnto(this.onlyship), this.onlyship)
+        && t.checkExpect(this.bullet2.explodeOnto(this.onlyship),
+            new ConsLoGamePiece(new Bullet(this.posn0, new MyPosn(8, 0), 4, 1), this.onlyship))
+        && t.checkExpect(this.bullet1.explodeOnto(this.mt), this.bullet1.explode());
+  }
+
+  // tests the velocities function in the ExplosionTable class
+  boolean testVelocities(Tester t) {
+    return t.checkExpect(ExplosionTable.velocities(2),
+        new MyPosn[] { new MyPosn(8, 0), new MyPosn(-8, 0) })
+        && t.checkExpect(ExplosionTable.velocities(2) == ExplosionTable.velocities(2), true)
+        && t.checkExpect(ExplosionTable.velocities(40).length, 40);
+  }
+
+  // tests the build function in the ExplosionTable class
+  boolean testBuild(Tester t) {
+    return t.checkExpect(ExplosionTable.build(1), new MyPosn[] { new MyPosn(8, 0) })
+        && t.checkExpect(ExplosionTable.build(4), new MyPosn[] { new MyPosn(8, 0),
+            new MyPosn(0, -8), new MyPosn(-8, 0), new MyPosn(0, 8) });
+  }
+
   // tests the move function in the AGamePiece class
   boolean testMove(Tester t) {
     return t.checkExpect(this.ship1.move(), new Ship(this.posn1.add(new MyPosn(-4, -0)), false))
@@ -501,6 +608,26 @@ class ExamplesGamePieces {
   boolean testIsEmpty(Tester t) {
     return t.checkExpect(this.mt.isEmpty(), true) && t.checkExpect(this.allships.isEmpty(), false);
   }
+
+  // tests the length function in the ILoGamePiece class
+  boolean testLength(Tester t) {
+    return t.checkExpect(this.mt.length(), 0) && t.checkExpect(this.allships.length(), 3)
+        && t.checkExpect(this.sandb.length(), 2);
+  }
+
+  // tests the addFirstTo function in the ILoGamePiece class
+  boolean testAddFirstTo(Tester t) {
+    ArrayList<AGamePiece> acc = new ArrayList<AGamePiece>();
+    return t.checkExpect(this.mt.addFirstTo(acc), this.mt)
+        && t.checkExpect(this.sandb.addFirstTo(acc), new ConsLoGamePiece(this.bullet4, this.mt))
+        && t.checkExpect(acc, new ArrayList<AGamePiece>(Arrays.asList(this.ship1)));
+  }
+
+  // tests the withoutFirst function in the ILoGamePiece class
+  boolean testWithoutFirst(Tester t) {
+    return t.checkExpect(this.mt.withoutFirst(), this.mt)
+        && t.checkExpect(this.sandb.withoutFirst(), new ConsLoGamePiece(this.bullet4, this.mt));
+  }
   /////////////////////////////////////////////////////////////////////////////////////////////////
 
   // to test the bigBang function in the MyGame class
@@ -540,6 +667,65 @@ class ExamplesGamePieces {
         && t.checkExpect(this.shipworld.addShip(), new MyGame(500, 300, 1, 10, 0, null, null));
   }
 
+  // to test the addShips method with a custom wave schedule in the MyGame class
+  boolean testAddShipsWaves(Tester t) {
+    WaveScheduler everyTick = new WaveScheduler(1, 4, 4, 100);
+    MyGame game = new MyGame(500, 300, 10, everyTick);
+    return t.checkExpect(game.addShips(new Random(3)).ships,
+        game.spawnShips(4, new Random(3)))
+        && t.checkExpect(new MyGame(500, 300, 2, 10, 0, this.mt, this.mt,
+            new WaveScheduler(2, 0, 0, 50)).addShips(),
+            new MyGame(500, 300, 2, 10, 0, this.mt, this.mt, new WaveScheduler(2, 0, 0, 50)))
+        && t.checkExpect(new MyGame(500, 300, 10, new WaveScheduler(5, 1, 3, 50)).addShips(),
+            new MyGame(500, 300, 10, new WaveScheduler(5, 1, 3, 50)));
+  }
+
+  // to test the spawnShips method in the MyGame class
+  boolean testSpawnShips(Tester t) {
+    MyGame lefts = new MyGame(500, 300, 10, new WaveScheduler(1, 1, 1, 100));
+    return t.checkExpect(lefts.spawnShips(0, new Random(1)), this.mt)
+        && t.checkExpect(lefts.spawnShips(2, new Random(1)),
+            new ConsLoGamePiece(new Ship(new MyPosn(0, 147), true),
+                new ConsLoGamePiece(new Ship(new MyPosn(0, 70), true), this.mt)));
+  }
+
+  // to test the randomShip method in the MyGame class
+  boolean testRandomShip(Tester t) {
+    MyGame rights = new MyGame(500, 300, 10, new WaveScheduler(1, 1, 1, 0));
+    return t.checkExpect(rights.randomShip(new Random(1)).left, false)
+        && t.checkExpect(rights.randomShip(new Random(1)).position.x, 500)
+        && t.checkNumRange(rights.randomShip(new Random(2)).position.y, 42, 258);
+  }
+
+  // to test the isSpawnTick method in the WaveScheduler class
+  boolean testIsSpawnTick(Tester t) {
+    return t.checkExpect(new WaveScheduler().isSpawnTick(28), true)
+        && t.checkExpect(new WaveScheduler().isSpawnTick(27), false)
+        && t.checkExpect(new WaveScheduler(1, 1, 1, 50).isSpawnTick(27), true);
+  }
+
+  // to test the burstSize method in the WaveScheduler class
+  boolean testBurstSize(Tester t) {
+    return t.checkExpect(new WaveScheduler(1, 1000, 1000, 50).burstSize(new Random(1)), 1000)
+        && t.checkNumRange(new WaveScheduler().burstSize(new Random(1)), 1, 4);
+  }
+
+  // to test the spawnLeft method in the WaveScheduler class
+  boolean testSpawnLeft(Tester t) {
+    return t.checkExpect(new WaveScheduler(1, 1, 1, 100).spawnLeft(new Random(1)), true)
+        && t.checkExpect(new WaveScheduler(1, 1, 1, 0).spawnLeft(new Random(1)), false);
+  }
+
+  // to test the constructor of the WaveScheduler class
+  boolean testWaveSchedulerConstructor(Tester t) {
+    return t.checkConstructorException(
+        new IllegalArgumentException("Invalid arguments passed to constructor."),
+        "WaveScheduler", 0, 1, 3, 50)
+        && t.checkConstructorException(
+            new IllegalArgumentException("Invalid arguments passed to constructor."),
+            "WaveScheduler", 28, 3, 1, 50);
+  }
+
   // to test the shipsDestroyed function in the MyGame class
   boolean testshipsDestroyed(Tester t) {
     return t.checkExpect(this.world.shipsDestroyed(), this.world);
@@ -568,6 +754,270 @@ class ExamplesGamePieces {
             new Bullet(new MyPosn(250, 260), new MyPosn(0, -8), 2, 1), this.mt)));
   }
 
+  // to test the run method in the SimulationRunner class
+  boolean testRun(Tester t) {
+    SimulationRunner quiet = new SimulationRunner(
+        new MyGame(500, 300, 0, new WaveScheduler(1000, 0, 0, 50)));
+    SimulationReport shot = new SimulationRunner(
+        new MyGame(500, 300, 1, new WaveScheduler(1000, 0, 0, 50))).press(0, " ").run(100);
+    SimulationReport waves = new SimulationRunner(
+        new MyGame(500, 300, 5, new WaveScheduler(1, 2, 2, 100))).run(3);
+    return t.checkExpect(quiet.run(5).ticks, 1)
+        && t.checkExpect(quiet.game.currentTick, 2)
+        && t.checkExpect(shot.peakBullets, 1)
+        && t.checkExpect(shot.ticks, 33)
+        && t.checkExpect(waves.peakShips, 6)
+        && t.checkExpect(waves.ticks, 3);
+  }
+
+  // to test the pressEvery method in the SimulationRunner class
+  boolean testPressEvery(Tester t) {
+    SimulationRunner runner = new SimulationRunner(this.world).pressEvery(3, 7, " ");
+    return t.checkExpect(runner.script.size(), 3) && t.checkExpect(runner.script.get(6), " ")
+        && t.checkExpect(runner.script.get(1), null);
+  }
+
+  // to test the ticksPerSecond and bytesPerTick methods in the SimulationReport class
+  boolean testSimulationReport(Tester t) {
+    SimulationReport report = new SimulationReport();
+    boolean empty = t.checkExpect(report.ticksPerSecond(), 0.0)
+        && t.checkExpect(report.bytesPerTick(), -1.0);
+    report.ticks = 10;
+    report.nanos = 2000000000L;
+    report.allocatedBytes = 500;
+    return empty && t.checkExpect(report.ticksPerSecond(), 5.0)
+        && t.checkExpect(report.bytesPerTick(), 50.0);
+  }
+
+  // builds a game with the given amount of ships and bullets scattered on screen
+  MyGame crowdedGame(int shipCount, int bulletCount, Random rand) {
+    ILoGamePiece ships = this.mt;
+    for (int i = 0; i < shipCount; i++) {
+      ships = new ConsLoGamePiece(
+          new Ship(new MyPosn(rand.nextInt(500), rand.nextInt(300)), rand.nextBoolean()), ships);
+    }
+    ILoGamePiece bullets = this.mt;
+    for (int i = 0; i < bulletCount; i++) {
+      bullets = new ConsLoGamePiece(new Bullet(new MyPosn(rand.nextInt(500), rand.nextInt(300)),
+          new MyPosn(rand.nextInt(17) - 8, rand.nextInt(17) - 8), 2 + rand.nextInt(8),
+          rand.nextInt(4)), bullets);
+    }
+    return new MyGame(500, 300, 1, 10, 0, ships, bullets, new WaveScheduler(100000, 1, 1, 50));
+  }
+
+  // to test the tick method in the ParallelTicker class
+  boolean testParallelTick(Tester t) {
+    ParallelTicker always = new ParallelTicker(ForkJoinPool.commonPool(), 0, 8);
+    MyGame sequential = this.crowdedGame(40, 400, new Random(11));
+    MyGame parallel = this.crowdedGame(40, 400, new Random(11));
+    boolean same = true;
+    for (int i = 0; i < 10; i++) {
+      sequential = sequential.onTick();
+      parallel = always.tick(parallel);
+      same = same && t.checkExpect(parallel, sequential);
+    }
+    MyGame full = new MyGame(500, 300, 1, 10, 0, this.allships, this.allbullets);
+    return same && t.checkExpect(always.tick(full), full.onTick())
+        && t.checkExpect(new ParallelTicker().tick(this.world), this.world.onTick());
+  }
+
+  // to test the moveAndCull method in the ParallelTicker class
+  boolean testMoveAndCull(Tester t) {
+    ParallelTicker ticker = new ParallelTicker(ForkJoinPool.commonPool(), 0, 1);
+    return t.checkExpect(ticker.moveAndCull(new AGamePiece[] { this.ship1, this.ship2,
+        this.bullet1 }, 7, 7), new ConsLoGamePiece(this.ship1.move(),
+            new ConsLoGamePiece(this.bullet1.move(), this.mt)))
+        && t.checkExpect(ticker.moveAndCull(new AGamePiece[0], 7, 7), this.mt);
+  }
+
+  // to test the flatten and toList methods in the ParallelTicker class
+  boolean testFlatten(Tester t) {
+    return t.checkExpect(ParallelTicker.flatten(this.mt), new ArrayList<AGamePiece>())
+        && t.checkExpect(ParallelTicker.toList(ParallelTicker.flatten(this.allbullets)),
+            this.allbullets)
+        && t.checkExpect(ParallelTicker.flatten(this.sandb).size(), 2);
+  }
+
+  // to test the countUpTo and countBefore methods in the ParallelTicker class
+  boolean testCount(Tester t) {
+    ILoGamePiece spawned = new ConsLoGamePiece(this.ship3,
+        new ConsLoGamePiece(this.ship2, this.sandb));
+    return t.checkExpect(ParallelTicker.countUpTo(this.mt, 5), 0)
+        && t.checkExpect(ParallelTicker.countUpTo(spawned, 5), 4)
+        && t.checkExpect(ParallelTicker.countUpTo(spawned, 3), 3)
+        && t.checkExpect(ParallelTicker.countUpTo(spawned, 0), 0)
+        && t.checkExpect(ParallelTicker.countBefore(spawned, this.sandb), 2)
+        && t.checkExpect(ParallelTicker.countBefore(this.sandb, this.sandb), 0);
+  }
+
+  // to test the anyCollides method in the CollisionGrid class
+  boolean testAnyCollides(Tester t) {
+    CollisionGrid ships = new CollisionGrid(new AGamePiece[] { this.ship1, this.ship2,
+        this.ship3 });
+    CollisionGrid none = new CollisionGrid(new AGamePiece[0]);
+    return t.checkExpect(ships.anyCollides(this.bullet1), true)
+        && t.checkExpect(ships.anyCollides(new Bullet(new MyPosn(400, 200), this.posn0, 2, 0)),
+            false)
+        && t.checkExpect(ships.anyCollides(new Bullet(new MyPosn(-15, 5), this.posn0, 10, 0)),
+            true)
+        && t.checkExpect(none.anyCollides(this.ship1), false);
+  }
+
+  // to test the anyHit method in the CollisionKernel class
+  boolean testAnyHit(Tester t) {
+    Random rand = new Random(5);
+    AGamePiece[] pieces = new AGamePiece[203];
+    for (int i = 0; i < pieces.length; i++) {
+      pieces[i] = new Bullet(new MyPosn(rand.nextInt(500), rand.nextInt(300)), this.posn0,
+          1 + rand.nextInt(10), 0);
+    }
+    CollisionKernel kernel = CollisionKernel.of(pieces);
+    boolean agrees = true;
+    for (int q = 0; q < 300; q++) {
+      AGamePiece probe = new Ship(new MyPosn(rand.nextInt(500), rand.nextInt(300)), true);
+      int from = rand.nextInt(pieces.length);
+      int to = from + rand.nextInt(pieces.length - from + 1);
+      boolean expected = false;
+      for (int i = from; i < to; i++) {
+        expected = expected || probe.collidesWith(pieces[i]);
+      }
+      agrees = agrees && t.checkExpect(kernel.anyHit(probe.position.x, probe.position.y,
+          probe.radius, from, to), expected);
+    }
+    return agrees && t.checkExpect(kernel.anyHit(0, 0, 10, 5, 5), false);
+  }
+
+  // to test the blockHits and hit methods in the CollisionKernel class
+  boolean testBlockHits(Tester t) {
+    CollisionKernel kernel = new CollisionKernel(new int[] { 0, 10, 20, 30, 40, 50, 60, 70 },
+        new int[8], new int[] { 1, 1, 1, 1, 1, 1, 1, 1 });
+    return t.checkExpect(kernel.blockHits(70, 3, 2, 0), true)
+        && t.checkExpect(kernel.blockHits(75, 3, 1, 0), false)
+        && t.checkExpect(kernel.hit(70, 3, 2, 7), true)
+        && t.checkExpect(kernel.hit(70, 3, 2, 6), false)
+        && t.checkExpect(kernel.blockMaxX[0], 70);
+  }
+
+  // to test the onTickMeasured method in the MyGame class and the TickMetrics class
+  boolean testTickMetrics(Tester t) {
+    TickMetrics.reset();
+    TickMetrics.enabled = false;
+    this.world.onTick();
+    this.world.makeScene();
+    boolean quiet = t.checkExpect(TickMetrics.snapshot().ticks, 0L)
+        && t.checkExpect(TickMetrics.snapshot().calls[TickMetrics.RENDER], 0L);
+    TickMetrics.enabled = true;
+    MyGame full = new MyGame(500, 300, 1, 10, 0, this.allships, this.allbullets);
+    MyGame measured = full.onTick();
+    full.makeScene();
+    TickSnapshot snapshot = TickMetrics.snapshot();
+    TickMetrics.enabled = false;
+    TickMetrics.reset();
+    return quiet && t.checkExpect(measured, full.onTick())
+        && t.checkExpect(snapshot.ticks, 1L)
+        && t.checkExpect(snapshot.calls, new long[] { 1, 1, 1, 1, 1, 1 })
+        && t.checkExpect(snapshot.lastShips, 0)
+        && t.checkExpect(snapshot.peakBullets, measured.bullets.length());
+  }
+
+  // to test the averageNanos method in the TickSnapshot class
+  boolean testAverageNanos(Tester t) {
+    TickSnapshot snapshot = new TickSnapshot(new long[] { 10, 0, 0, 0, 0, 0 },
+        new long[] { 4, 0, 0, 0, 0, 0 }, 4, 0, 0, 0, 0);
+    return t.checkExpect(snapshot.averageNanos(TickMetrics.COLLIDE), 2.5)
+        && t.checkExpect(snapshot.averageNanos(TickMetrics.RENDER), 0.0);
+  }
+
+  // to test the makeScene function with a piece layer in the MyGame class
+  boolean testMakeSceneBatched(Tester t) {
+    PieceLayer layer = new PieceLayer(500, 300);
+    MyGame game = new MyGame(500, 300, 1, 10, 0, this.onlyshipAt(250, 150), this.mt,
+        new WaveScheduler(), layer);
+    WorldScene scene = game.makeScene();
+    return t.checkExpect(scene, game.addInfo(new WorldScene(500, 300))
+        .placeImageXY(layer.image, 250, 150))
+        && t.checkExpect(layer.dirtyCount, layer.sprite(10).length)
+        && t.checkExpect(layer.pixels[150 * 500 + 250], Color.cyan.getRGB())
+        && t.checkExpect(layer.pixels[150 * 500 + 260], Color.cyan.getRGB())
+        && t.checkExpect(layer.pixels[150 * 500 + 261], PieceLayer.CLEAR.getRGB())
+        && t.checkExpect(layer.pixels[160 * 500 + 250], Color.cyan.getRGB())
+        && t.checkExpect(layer.pixels[141 * 500 + 241], PieceLayer.CLEAR.getRGB());
+  }
+
+  // a list with one ship at the given position
+  ILoGamePiece onlyshipAt(int x, int y) {
+    return new ConsLoGamePiece(new Ship(new MyPosn(x, y), true), this.mt);
+  }
+
+  // to test the sprite method in the PieceLayer class
+  boolean testSprite(Tester t) {
+    PieceLayer layer = new PieceLayer(10, 10);
+    return t.checkExpect(layer.sprite(0), new int[] { 0 })
+        && t.checkExpect(layer.sprite(2).length, 13)
+        && t.checkExpect(layer.sprite(2) == layer.sprite(2), true);
+  }
+
+  // to test the render and draw methods in the PieceLayer class
+  boolean testRender(Tester t) {
+    PieceLayer layer = new PieceLayer(10, 10);
+    layer.render(new ConsLoGamePiece(new Bullet(new MyPosn(0, 0), this.posn0, 2, 0), this.mt),
+        new ConsLoGamePiece(new Bullet(new MyPosn(5, 5), this.posn0, 2, 0), this.mt));
+    int both = layer.dirtyCount;
+    layer.render(this.mt, this.mt);
+    return t.checkExpect(both, 6 + 13) && t.checkExpect(layer.dirtyCount, 0)
+        && t.checkExpect(layer.render(this.mt, this.mt), layer.image);
+  }
+
+  // to test the colors the render and draw methods in the PieceLayer class leave behind
+  boolean testRenderPixels(Tester t) {
+    PieceLayer layer = new PieceLayer(30, 20);
+    int clear = PieceLayer.CLEAR.getRGB();
+    layer.render(new ConsLoGamePiece(new Ship(new MyPosn(25, 5), true), this.mt),
+        new ConsLoGamePiece(new Bullet(new MyPosn(5, 15), this.posn0, 2, 0), this.mt));
+    boolean first = t.checkExpect(layer.pixels[5 * 30 + 25], Color.cyan.getRGB())
+        && t.checkExpect(layer.pixels[15 * 30 + 5], Color.pink.getRGB())
+        && t.checkExpect(layer.pixels[15 * 30 + 7], Color.pink.getRGB())
+        && t.checkExpect(layer.pixels[15 * 30 + 8], clear)
+        && t.checkExpect(layer.pixels[0 * 30 + 29], Color.cyan.getRGB())
+        && t.checkExpect(layer.pixels[15 * 30 + 25], Color.cyan.getRGB())
+        && t.checkExpect(layer.pixels[0 * 30 + 15], clear)
+        && t.checkExpect(layer.dirtyCount, 199 + 13);
+    layer.render(this.mt,
+        new ConsLoGamePiece(new Bullet(new MyPosn(20, 15), this.posn0, 2, 0), this.mt));
+    int drawn = 0;
+    for (int i = 0; i < layer.pixels.length; i++) {
+      if (layer.pixels[i] != clear) {
+        drawn += 1;
+      }
+    }
+    return first && t.checkExpect(layer.pixels[5 * 30 + 25], clear)
+        && t.checkExpect(layer.pixels[0 * 30 + 29], clear)
+        && t.checkExpect(layer.pixels[15 * 30 + 5], clear)
+        && t.checkExpect(layer.pixels[15 * 30 + 20], Color.pink.getRGB())
+        && t.checkExpect(drawn, 13);
+  }
+
+  // to test that the render method in the PieceLayer class records a pixel covered by several
+  // pieces as dirty once
+  boolean testRenderStacked(Tester t) {
+    PieceLayer layer = new PieceLayer(40, 30);
+    AGamePiece bullet = new Bullet(new MyPosn(15, 10), this.posn0, 2, 0);
+    layer.render(new ConsLoGamePiece(new Ship(new MyPosn(15, 10), true), this.mt),
+        new ConsLoGamePiece(bullet, new ConsLoGamePiece(bullet,
+            new ConsLoGamePiece(bullet, this.mt))));
+    boolean drawn = t.checkExpect(layer.dirtyCount, layer.sprite(10).length)
+        && t.checkExpect(layer.pixels[10 * 40 + 15], Color.pink.getRGB())
+        && t.checkExpect(layer.pixels[10 * 40 + 20], Color.cyan.getRGB());
+    layer.render(this.mt, this.mt);
+    int left = 0;
+    for (int i = 0; i < layer.pixels.length; i++) {
+      if (layer.pixels[i] != PieceLayer.CLEAR.getRGB()) {
+        left += 1;
+      }
+    }
+    return drawn && t.checkExpect(layer.dirtyCount, 0) && t.checkExpect(left, 0);
+  }
+
   // to test the WorldEnds function in the MyGame class
   boolean testWorldEnds(Tester t) {
     return t.checkExpect(this.world.worldEnds(), new WorldEnd(false, world.makeEndScene()))
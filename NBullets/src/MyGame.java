@@ -12,15 +12,41 @@ class MyGame extends World {
   int shipsDestroyed;
   ILoGamePiece ships;
   ILoGamePiece bullets;
+  WaveScheduler waves;
+  PieceLayer layer; // null to draw every piece as its own image
 
   // the user constructor
   MyGame(int width, int height, int bulletsLeft) {
     this(width, height, 1, bulletsLeft, 0, new MtLoGamePiece(), new MtLoGamePiece());
   }
 
+  // the user constructor with a custom ship spawn schedule
+  MyGame(int width, int height, int bulletsLeft, WaveScheduler waves) {
+    this(width, height, 1, bulletsLeft, 0, new MtLoGamePiece(), new MtLoGamePiece(), waves);
+  }
+
+  // the user constructor that draws all the pieces into the given layer, for heavy scenes
+  MyGame(int width, int height, int bulletsLeft, WaveScheduler waves, PieceLayer layer) {
+    this(width, height, 1, bulletsLeft, 0, new MtLoGamePiece(), new MtLoGamePiece(), waves,
+        layer);
+  }
+
   // my constructor
   MyGame(int width, int height, int currentTick, int bulletsLeft, int shipsDestroyed,
       ILoGamePiece ships, ILoGamePiece bullets) {
+    this(width, height, currentTick, bulletsLeft, shipsDestroyed, ships, bullets,
+        new WaveScheduler());
+  }
+
+  // my constructor with a spawn schedule
+  MyGame(int width, int height, int currentTick, int bulletsLeft, int shipsDestroyed,
+      ILoGamePiece ships, ILoGamePiece bullets, WaveScheduler waves) {
+    this(width, height, currentTick, bulletsLeft, shipsDestroyed, ships, bullets, waves, null);
+  }
+
+  // the full constructor
+  MyGame(int width, int height, int currentTick, int bulletsLeft, int shipsDestroyed,
+      ILoGamePiece ships, ILoGamePiece bullets, WaveScheduler waves, PieceLayer layer) {
     if (width < 0 || height < 0 || bulletsLeft < 0) {
       throw new IllegalArgumentException("Invalid arguments passed to constructor.");
     }
@@ -32,16 +58,31 @@ class MyGame extends World {
       this.shipsDestroyed = shipsDestroyed;
       this.ships = ships;
       this.bullets = bullets;
+      this.waves = waves;
+      this.layer = layer;
     }
   }
 
   @Override
   // to make a scene
   public WorldScene makeScene() {
+    long start = 0;
+    if (TickMetrics.enabled) {
+      start = System.nanoTime();
+    }
     WorldScene scene = new WorldScene(this.width, this.height);
     scene = addInfo(scene);
-    scene = ships.placeAll(scene);
-    scene = bullets.placeAll(scene);
+    if (this.layer == null) {
+      scene = ships.placeAll(scene);
+      scene = bullets.placeAll(scene);
+    }
+    else {
+      scene = scene.placeImageXY(this.layer.render(this.ships, this.bullets), this.width / 2,
+          this.height / 2);
+    }
+    if (TickMetrics.enabled) {
+      TickMetrics.record(TickMetrics.RENDER, start);
+    }
     return scene;
   }
 
@@ -59,38 +100,85 @@ class MyGame extends World {
   @Override
   // This method gets called every tickrate seconds (see bellow in example class).
   public MyGame onTick() {
-    return this.shipsDestroyed().addShips().addBullets().movePieces().removeOffScreen();
+    if (TickMetrics.enabled) {
+      return this.onTickMeasured();
+    }
+    else {
+      return this.shipsDestroyed().addShips().addBullets().movePieces().removeOffScreen();
+    }
+  }
+
+  // does the same as onTick, recording how long each phase takes in TickMetrics
+  MyGame onTickMeasured() {
+    long time = System.nanoTime();
+    MyGame game = this.shipsDestroyed();
+    time = TickMetrics.record(TickMetrics.COLLIDE, time);
+    game = game.addShips();
+    time = TickMetrics.record(TickMetrics.SPAWN, time);
+    game = game.addBullets();
+    time = TickMetrics.record(TickMetrics.EXPLODE, time);
+    game = game.movePieces();
+    time = TickMetrics.record(TickMetrics.MOVE, time);
+    game = game.removeOffScreen();
+    TickMetrics.record(TickMetrics.CULL, time);
+    TickMetrics.recordTick(game.ships.length(), game.bullets.length());
+    return game;
   }
 
   public MyGame removeOffScreen() {
     return new MyGame(this.width, this.height, this.currentTick, this.bulletsLeft,
         this.shipsDestroyed, this.ships.removeOffScreen(this.width, this.height),
-        this.bullets.removeOffScreen(this.width, this.height));
+        this.bullets.removeOffScreen(this.width, this.height), this.waves, this.layer);
   }
 
   // moves all of the pieces in this game
   public MyGame movePieces() {
     return new MyGame(this.width, this.height, this.currentTick + 1, this.bulletsLeft,
-        this.shipsDestroyed, this.ships.moveAll(), this.bullets.moveAll());
+        this.shipsDestroyed, this.ships.moveAll(), this.bullets.moveAll(), this.waves,
+        this.layer);
   }
 
-  // adds a random number in [1,3] of ships to this game
+  // adds a wave of ships to this game if this is a spawn tick
   public MyGame addShips() {
-    int amt = new Random().nextInt(3) + 1;
-    if (amt == 1) {
-      return addShip();
-    }
-    else if (amt == 2) {
-      return addShip().addShip();
+    if (!this.waves.isSpawnTick(this.currentTick)) {
+      return this;
     }
     else {
-      return addShip().addShip().addShip();
+      return this.addShips(new Random());
     }
   }
 
-  // adds a random ship to this game
+  // adds a wave of ships to this game using the given random, ignoring the tick
+  public MyGame addShips(Random rand) {
+    return new MyGame(this.width, this.height, this.currentTick, this.bulletsLeft,
+        this.shipsDestroyed, this.spawnShips(this.waves.burstSize(rand), rand), this.bullets,
+        this.waves, this.layer);
+  }
+
+  // adds a random ship to this game if this is a spawn tick
   public MyGame addShip() {
-    boolean left = new Random().nextBoolean();
+    if (!this.waves.isSpawnTick(this.currentTick)) {
+      return this;
+    }
+    else {
+      return new MyGame(this.width, this.height, this.currentTick, this.bulletsLeft,
+          this.shipsDestroyed, this.spawnShips(1, new Random()), this.bullets, this.waves,
+          this.layer);
+    }
+  }
+
+  // adds the given amount of random ships to the front of this game's ships
+  ILoGamePiece spawnShips(int amt, Random rand) {
+    ILoGamePiece result = this.ships;
+    for (int i = 0; i < amt; i++) {
+      result = new ConsLoGamePiece(this.randomShip(rand), result);
+    }
+    return result;
+  }
+
+  // creates a ship on a random side at a random height in the middle of the screen
+  Ship randomShip(Random rand) {
+    boolean left = this.waves.spawnLeft(rand);
     int x;
     if (left) {
       x = 0;
@@ -98,34 +186,30 @@ class MyGame extends World {
     else {
       x = this.width;
     }
-    int y = new Random().nextInt(this.height - (2 * this.height / 7) + 1) + (this.height / 7);
-    Ship ship = new Ship(new MyPosn(x, y), left);
-    if (this.currentTick % 28 == 0) {
-      return new MyGame(this.width, this.height, this.currentTick, this.bulletsLeft,
-          this.shipsDestroyed, new ConsLoGamePiece(ship, this.ships), this.bullets);
-    }
-    else {
-      return this;
-    }
+    int y = rand.nextInt(this.height - (2 * this.height / 7) + 1) + (this.height / 7);
+    return new Ship(new MyPosn(x, y), left);
   }
 
   // increments the count of ships destroyed
   public MyGame shipsDestroyed() {
     int shipsDestroyed = this.ships.countCollisions(this.bullets);
     return new MyGame(this.width, this.height, this.currentTick, this.bulletsLeft,
-        this.shipsDestroyed + shipsDestroyed, this.ships, this.bullets);
+        this.shipsDestroyed + shipsDestroyed, this.ships, this.bullets, this.waves,
+        this.layer);
   }
 
   // removes the ships that have collided with a bullet from this game
   public MyGame removeShips() {
     return new MyGame(this.width, this.height, this.currentTick, this.bulletsLeft,
-        this.shipsDestroyed, this.ships.removeCollisions(this.bullets), this.bullets);
+        this.shipsDestroyed, this.ships.removeCollisions(this.bullets), this.bullets,
+        this.waves, this.layer);
   }
 
   // removes the bullets that have collided with a ship from this game
   public MyGame removeBullets() {
     return new MyGame(this.width, this.height, this.currentTick, this.bulletsLeft,
-        this.shipsDestroyed, this.ships, this.bullets.removeCollisions(this.ships));
+        this.shipsDestroyed, this.ships, this.bullets.removeCollisions(this.ships), this.waves,
+        this.layer);
   }
 
   // adds the new bullets to the game after a collision
@@ -134,7 +218,8 @@ class MyGame extends World {
     ILoGamePiece untouchedBullets = this.bullets.removeCollisions(this.ships);
     ILoGamePiece untouchedShips = this.ships.removeCollisions(this.bullets);
     return new MyGame(this.width, this.height, this.currentTick, this.bulletsLeft,
-        this.shipsDestroyed, untouchedShips, untouchedBullets.append(newBullets));
+        this.shipsDestroyed, untouchedShips, untouchedBullets.append(newBullets), this.waves,
+        this.layer);
   }
 
   @Override
@@ -144,7 +229,8 @@ class MyGame extends World {
         1);
     if (key.equals(" ") && this.bulletsLeft >= 1) {
       return new MyGame(this.width, this.height, this.currentTick, this.bulletsLeft - 1,
-          this.shipsDestroyed, this.ships, new ConsLoGamePiece(bullet, this.bullets));
+          this.shipsDestroyed, this.ships, new ConsLoGamePiece(bullet, this.bullets),
+          this.waves, this.layer);
     }
     else {
       return this;
@@ -170,3 +256,50 @@ class MyGame extends World {
         new TextImage("Ships Destoyed: " + this.shipsDestroyed, Color.black), 250, 275);
   }
 }
+
+//to represent when, how many and from which side ships spawn
+class WaveScheduler {
+  int interval; // ticks between waves
+  int minBurst; // fewest ships in a wave
+  int maxBurst; // most ships in a wave
+  int leftPercent; // chance in [0,100] that a ship enters from the left
+
+  // the default schedule: 1 to 3 ships every 28 ticks from either side
+  WaveScheduler() {
+    this(28, 1, 3, 50);
+  }
+
+  // the constructor
+  WaveScheduler(int interval, int minBurst, int maxBurst, int leftPercent) {
+    if (interval < 1 || minBurst < 0 || maxBurst < minBurst || leftPercent < 0
+        || leftPercent > 100) {
+      throw new IllegalArgumentException("Invalid arguments passed to constructor.");
+    }
+    else {
+      this.interval = interval;
+      this.minBurst = minBurst;
+      this.maxBurst = maxBurst;
+      this.leftPercent = leftPercent;
+    }
+  }
+
+  // determines if a wave spawns on the given tick
+  boolean isSpawnTick(int tick) {
+    return tick % this.interval == 0;
+  }
+
+  // picks how many ships are in the next wave
+  int burstSize(Random rand) {
+    if (this.minBurst == this.maxBurst) {
+      return this.minBurst;
+    }
+    else {
+      return this.minBurst + rand.nextInt(this.maxBurst - this.minBurst + 1);
+    }
+  }
+
+  // picks whether the next ship enters from the left
+  boolean spawnLeft(Random rand) {
+    return rand.nextInt(100) < this.leftPercent;
+  }
+}
@@ -0,0 +1,274 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+//to represent a tick mode that advances a game on a fork-join pool,
+//giving the same result as MyGame.onTick
+class ParallelTicker {
+  ForkJoinPool pool;
+  int threshold; // below this many pieces a tick stays sequential
+  int grain; // the most indices a single task handles without splitting
+
+  // the constructor
+  ParallelTicker(ForkJoinPool pool, int threshold, int grain) {
+    if (threshold < 0 || grain < 1) {
+      throw new IllegalArgumentException("Invalid arguments passed to constructor.");
+    }
+    else {
+      this.pool = pool;
+      this.threshold = threshold;
+      this.grain = grain;
+    }
+  }
+
+  // a ticker on the common pool that goes parallel from 4096 pieces
+  ParallelTicker() {
+    this(ForkJoinPool.commonPool(), 4096, 1024);
+  }
+
+  // advances the given game by one tick, in parallel if it has enough pieces
+  MyGame tick(MyGame game) {
+    int shipCount = ParallelTicker.countUpTo(game.ships, this.threshold);
+    if (shipCount + ParallelTicker.countUpTo(game.bullets, this.threshold - shipCount)
+        < this.threshold) {
+      return game.onTick();
+    }
+
+    // spawned ships go on the front of the list, so the old ships are the suffix
+    ILoGamePiece allShips = game.addShips().ships;
+    int spawned = ParallelTicker.countBefore(allShips, game.ships);
+    AGamePiece[] ships = ParallelTicker.flatten(allShips).toArray(new AGamePiece[0]);
+    AGamePiece[] bullets = ParallelTicker.flatten(game.bullets).toArray(new AGamePiece[0]);
+
+    CollisionGrid bulletGrid = new CollisionGrid(bullets);
+    CollisionGrid shipGrid = new CollisionGrid(ships);
+    boolean[] shipHit = new boolean[ships.length];
+    boolean[] bulletHit = new boolean[bullets.length];
+    this.forEach(ships.length, i -> shipHit[i] = bulletGrid.anyCollides(ships[i]));
+    this.forEach(bullets.length, j -> bulletHit[j] = shipGrid.anyCollides(bullets[j]));
+
+    int destroyed = 0;
+    for (int i = spawned; i < ships.length; i++) {
+      if (shipHit[i]) {
+        destroyed += 1;
+      }
+    }
+
+    ILoGamePiece newBullets = new MtLoGamePiece();
+    for (int j = bullets.length - 1; j >= 0; j--) {
+      if (bulletHit[j]) {
+        newBullets = bullets[j].explodeOnto(newBullets);
+      }
+    }
+    ArrayList<AGamePiece> nextBullets = ParallelTicker.keep(bullets, bulletHit);
+    nextBullets.addAll(ParallelTicker.flatten(newBullets));
+    ArrayList<AGamePiece> nextShips = ParallelTicker.keep(ships, shipHit);
+
+    return new MyGame(game.width, game.height, game.currentTick + 1, game.bulletsLeft,
+        game.shipsDestroyed + destroyed,
+        this.moveAndCull(nextShips.toArray(new AGamePiece[0]), game.width, game.height),
+        this.moveAndCull(nextBullets.toArray(new AGamePiece[0]), game.width, game.height),
+        game.waves, game.layer);
+  }
+
+  // moves all the given pieces and drops those that end up off screen,
+  // keeping the remaining pieces in order
+  ILoGamePiece moveAndCull(AGamePiece[] pieces, int width, int height) {
+    AGamePiece[] moved = new AGamePiece[pieces.length];
+    boolean[] off = new boolean[pieces.length];
+    this.forEach(pieces.length, i -> {
+      moved[i] = pieces[i].move();
+      off[i] = moved[i].isOffScreen(width, height);
+    });
+    return ParallelTicker.toList(ParallelTicker.keep(moved, off));
+  }
+
+  // EFFECT: runs the given action on every index in [0, n), split across the pool
+  void forEach(int n, IntConsumer action) {
+    if (n <= this.grain) {
+      for (int i = 0; i < n; i++) {
+        action.accept(i);
+      }
+    }
+    else {
+      this.pool.invoke(new IndexAction(0, n, this.grain, action));
+    }
+  }
+
+  // returns the pieces whose flag is false, in order
+  static ArrayList<AGamePiece> keep(AGamePiece[] pieces, boolean[] drop) {
+    ArrayList<AGamePiece> result = new ArrayList<AGamePiece>(pieces.length);
+    for (int i = 0; i < pieces.length; i++) {
+      if (!drop[i]) {
+        result.add(pieces[i]);
+      }
+    }
+    return result;
+  }
+
+  // copies the given list of game pieces into an array list, in order,
+  // without recursing on the list
+  static ArrayList<AGamePiece> flatten(ILoGamePiece pieces) {
+    ArrayList<AGamePiece> result = new ArrayList<AGamePiece>();
+    ILoGamePiece rest = pieces;
+    while (!rest.isEmpty()) {
+      rest = rest.addFirstTo(result);
+    }
+    return result;
+  }
+
+  // counts the pieces in the given list, stopping once the count reaches the given limit
+  static int countUpTo(ILoGamePiece pieces, int limit) {
+    int count = 0;
+    ILoGamePiece rest = pieces;
+    while (count < limit && !rest.isEmpty()) {
+      rest = rest.withoutFirst();
+      count += 1;
+    }
+    return count;
+  }
+
+  // counts the pieces in the given list in front of the given suffix of it
+  static int countBefore(ILoGamePiece pieces, ILoGamePiece suffix) {
+    int count = 0;
+    ILoGamePiece rest = pieces;
+    while (rest != suffix && !rest.isEmpty()) {
+      rest = rest.withoutFirst();
+      count += 1;
+    }
+    return count;
+  }
+
+  // builds a list of game pieces with the given pieces in order
+  static ILoGamePiece toList(ArrayList<AGamePiece> pieces) {
+    ILoGamePiece result = new MtLoGamePiece();
+    for (int i = pieces.size() - 1; i >= 0; i--) {
+      result = new ConsLoGamePiece(pieces.get(i), result);
+    }
+    return result;
+  }
+}
+
+//to represent a fork-join task over a range of indices
+class IndexAction extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  int lo; // inclusive
+  int hi; // exclusive
+  int grain;
+  IntConsumer action;
+
+  // the constructor
+  IndexAction(int lo, int hi, int grain, IntConsumer action) {
+    this.lo = lo;
+    this.hi = hi;
+    this.grain = grain;
+    this.action = action;
+  }
+
+  // EFFECT: runs the action on every index in this range, splitting large ranges in half
+  protected void compute() {
+    if (this.hi - this.lo <= this.grain) {
+      for (int i = this.lo; i < this.hi; i++) {
+        this.action.accept(i);
+      }
+    }
+    else {
+      int mid = (this.lo + this.hi) >>> 1;
+      RecursiveAction.invokeAll(new IndexAction(this.lo, mid, this.grain, this.action),
+          new IndexAction(mid, this.hi, this.grain, this.action));
+    }
+  }
+}
+
+//to represent a broad-phase grid of game pieces bucketed by cell,
+//so a collision query only looks at pieces in nearby cells
+class CollisionGrid {
+  AGamePiece[] pieces;
+  int maxRadius;
+  int cell; // the side of a square cell in pixels
+  int minX;
+  int minY;
+  int cols;
+  int rows;
+  int[] start; // the pieces in cell c are order[start[c]] to order[start[c + 1] - 1]
+  int[] order;
+  CollisionKernel kernel; // the pieces in cell order, so each row of cells is contiguous
+
+  // the constructor, buckets the given pieces with a counting sort
+  CollisionGrid(AGamePiece[] pieces) {
+    this.pieces = pieces;
+    int maxX = 0;
+    int maxY = 0;
+    this.minX = 0;
+    this.minY = 0;
+    this.maxRadius = 0;
+    if (pieces.length > 0) {
+      this.minX = Integer.MAX_VALUE;
+      this.minY = Integer.MAX_VALUE;
+      maxX = Integer.MIN_VALUE;
+      maxY = Integer.MIN_VALUE;
+    }
+    for (AGamePiece p : pieces) {
+      this.minX = Math.min(this.minX, p.position.x);
+      this.minY = Math.min(this.minY, p.position.y);
+      maxX = Math.max(maxX, p.position.x);
+      maxY = Math.max(maxY, p.position.y);
+      this.maxRadius = Math.max(this.maxRadius, p.radius);
+    }
+    this.cell = Math.max(1, 2 * this.maxRadius);
+    // far-apart pieces would make a huge sparse grid, so grow the cells instead
+    while ((long) ((maxX - this.minX) / this.cell + 1)
+        * ((maxY - this.minY) / this.cell + 1) > 4L * pieces.length + 16) {
+      this.cell *= 2;
+    }
+    this.cols = (maxX - this.minX) / this.cell + 1;
+    this.rows = (maxY - this.minY) / this.cell + 1;
+
+    int[] cellOf = new int[pieces.length];
+    this.start = new int[this.cols * this.rows + 1];
+    for (int i = 0; i < pieces.length; i++) {
+      cellOf[i] = this.cellIndex(pieces[i].position.x, pieces[i].position.y);
+      this.start[cellOf[i] + 1] += 1;
+    }
+    for (int c = 0; c < this.cols * this.rows; c++) {
+      this.start[c + 1] += this.start[c];
+    }
+    int[] next = Arrays.copyOf(this.start, this.start.length - 1);
+    this.order = new int[pieces.length];
+    for (int i = 0; i < pieces.length; i++) {
+      this.order[next[cellOf[i]]] = i;
+      next[cellOf[i]] += 1;
+    }
+    AGamePiece[] sorted = new AGamePiece[pieces.length];
+    for (int k = 0; k < pieces.length; k++) {
+      sorted[k] = pieces[this.order[k]];
+    }
+    this.kernel = CollisionKernel.of(sorted);
+  }
+
+  // computes the index of the cell holding the given point
+  int cellIndex(int x, int y) {
+    return ((y - this.minY) / this.cell) * this.cols + (x - this.minX) / this.cell;
+  }
+
+  // determines if the given piece collides with any piece in this grid
+  boolean anyCollides(AGamePiece p) {
+    int reach = p.radius + this.maxRadius;
+    int loCol = Math.max(0, Math.floorDiv(p.position.x - reach - this.minX, this.cell));
+    int hiCol = Math.min(this.cols - 1, Math.floorDiv(p.position.x + reach - this.minX, this.cell));
+    int loRow = Math.max(0, Math.floorDiv(p.position.y - reach - this.minY, this.cell));
+    int hiRow = Math.min(this.rows - 1, Math.floorDiv(p.position.y + reach - this.minY, this.cell));
+    if (loCol > hiCol) {
+      return false;
+    }
+    for (int row = loRow; row <= hiRow; row++) {
+      if (this.kernel.anyHit(p.position.x, p.position.y, p.radius,
+          this.start[row * this.cols + loCol], this.start[row * this.cols + hiCol + 1])) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,110 @@
+import javalib.worldimages.*;
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+//to represent one reusable pixel layer that all the ships and bullets are drawn into,
+//so a frame places a single image instead of one CircleImage per piece
+//the layer is shared by every world made from the one it was given to
+class PieceLayer {
+  static final Color CLEAR = new Color(0, 0, 0, 0);
+  int width;
+  int height;
+  int[] pixels; // what is drawn at each pixel, as y * width + x
+  ComputedPixelImage image;
+  HashMap<Integer, int[]> sprites; // radius -> packed (dx, dy) offsets of a solid circle
+  int[] dirty; // the pixels drawn in the last frame, each once, as y * width + x
+  int dirtyCount;
+  ArrayList<AGamePiece> pieces; // reused to walk the piece lists without recursing
+
+  // the constructor
+  PieceLayer(int width, int height) {
+    this.width = width;
+    this.height = height;
+    this.pixels = new int[width * height];
+    this.image = new ComputedPixelImage(width, height);
+    this.sprites = new HashMap<Integer, int[]>();
+    this.dirty = new int[1024];
+    this.dirtyCount = 0;
+    this.pieces = new ArrayList<AGamePiece>();
+  }
+
+  // returns the offsets of the pixels in a solid circle of the given radius,
+  // each packed as (dx + radius) * (2 * radius + 1) + (dy + radius)
+  int[] sprite(int radius) {
+    int[] sprite = this.sprites.get(radius);
+    if (sprite == null) {
+      int side = 2 * radius + 1;
+      int[] offsets = new int[side * side];
+      int count = 0;
+      for (int dx = -radius; dx <= radius; dx++) {
+        for (int dy = -radius; dy <= radius; dy++) {
+          if (dx * dx + dy * dy <= radius * radius) {
+            offsets[count] = (dx + radius) * side + (dy + radius);
+            count += 1;
+          }
+        }
+      }
+      sprite = Arrays.copyOf(offsets, count);
+      this.sprites.put(radius, sprite);
+    }
+    return sprite;
+  }
+
+  // EFFECT: erases the last frame and draws the given ships and then the given bullets
+  // returns the image of this layer
+  WorldImage render(ILoGamePiece ships, ILoGamePiece bullets) {
+    for (int i = 0; i < this.dirtyCount; i++) {
+      this.set(this.dirty[i] % this.width, this.dirty[i] / this.width, PieceLayer.CLEAR);
+    }
+    this.dirtyCount = 0;
+    this.drawAll(ships);
+    this.drawAll(bullets);
+    return this.image;
+  }
+
+  // EFFECT: draws every piece in the given list onto this layer
+  void drawAll(ILoGamePiece list) {
+    this.pieces.clear();
+    ILoGamePiece rest = list;
+    while (!rest.isEmpty()) {
+      rest = rest.addFirstTo(this.pieces);
+    }
+    for (AGamePiece p : this.pieces) {
+      this.draw(p);
+    }
+    this.pieces.clear();
+  }
+
+  // EFFECT: stamps the sprite of the given piece onto this layer in the piece's color,
+  // clipped to the layer; a pixel is only recorded as dirty the first time a frame draws it,
+  // so pieces stacked on one spot are cleared once
+  void draw(AGamePiece p) {
+    int side = 2 * p.radius + 1;
+    for (int offset : this.sprite(p.radius)) {
+      int x = p.position.x + offset / side - p.radius;
+      int y = p.position.y + offset % side - p.radius;
+      if (x >= 0 && x < this.width && y >= 0 && y < this.height) {
+        if (this.pixels[y * this.width + x] == PieceLayer.CLEAR.getRGB()) {
+          if (this.dirtyCount == this.dirty.length) {
+            this.dirty = Arrays.copyOf(this.dirty, 2 * this.dirty.length);
+          }
+          this.dirty[this.dirtyCount] = y * this.width + x;
+          this.dirtyCount += 1;
+        }
+        this.set(x, y, p.color);
+      }
+    }
+  }
+
+  // EFFECT: sets the given pixel to the given color, skipping the image if it is unchanged
+  void set(int x, int y, Color color) {
+    int rgb = color.getRGB();
+    int i = y * this.width + x;
+    if (this.pixels[i] != rgb) {
+      this.pixels[i] = rgb;
+      this.image.setPixel(x, y, color);
+    }
+  }
+}
@@ -0,0 +1,163 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+
+//to represent a headless driver that advances a game as fast as possible,
+//without a window and without ever calling makeScene
+class SimulationRunner {
+  MyGame game;
+  HashMap<Integer, String> script; // the key pressed before the given tick, if any
+  ParallelTicker ticker; // null to tick with MyGame.onTick
+
+  // the constructor
+  SimulationRunner(MyGame game, HashMap<Integer, String> script) {
+    this.game = game;
+    this.script = script;
+    this.ticker = null;
+  }
+
+  // a runner that presses no keys
+  SimulationRunner(MyGame game) {
+    this(game, new HashMap<Integer, String>());
+  }
+
+  // EFFECT: presses the given key right before the given tick
+  SimulationRunner press(int tick, String key) {
+    this.script.put(tick, key);
+    return this;
+  }
+
+  // EFFECT: presses the given key before every period-th tick, starting at tick 0
+  SimulationRunner pressEvery(int period, int ticks, String key) {
+    for (int tick = 0; tick < ticks; tick += period) {
+      this.script.put(tick, key);
+    }
+    return this;
+  }
+
+  // EFFECT: advances the game with the given parallel tick mode
+  SimulationRunner parallel(ParallelTicker ticker) {
+    this.ticker = ticker;
+    return this;
+  }
+
+  // EFFECT: runs the game for the given amount of ticks, or until it ends,
+  // and reports how fast it ran
+  SimulationReport run(int ticks) {
+    SimulationReport report = new SimulationReport();
+    long allocatedBefore = SimulationRunner.allocatedBytes();
+    for (int tick = 0; tick < ticks; tick++) {
+      String key = this.script.get(tick);
+      long start = System.nanoTime();
+      if (key != null) {
+        this.game = this.game.onKeyEvent(key);
+      }
+      if (this.ticker == null) {
+        this.game = this.game.onTick();
+      }
+      else {
+        this.game = this.ticker.tick(this.game);
+      }
+      report.nanos += System.nanoTime() - start;
+      report.ticks += 1;
+      report.peakShips = Math.max(report.peakShips, this.game.ships.length());
+      report.peakBullets = Math.max(report.peakBullets, this.game.bullets.length());
+      if (this.game.bulletsLeft <= 0 && this.game.bullets.isEmpty()) {
+        break;
+      }
+    }
+    long allocatedAfter = SimulationRunner.allocatedBytes();
+    if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+      report.allocatedBytes = allocatedAfter - allocatedBefore;
+    }
+    report.shipsDestroyed = this.game.shipsDestroyed;
+    return report;
+  }
+
+  // returns the bytes allocated so far by this thread, or -1 if this JVM cannot tell
+  static long allocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) bean;
+      if (sun.isThreadAllocatedMemorySupported() && sun.isThreadAllocatedMemoryEnabled()) {
+        return sun.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+
+  // runs a stress test without a display and prints the report
+  // args: ticks bullets waveInterval waveSize shotPeriod [parallel]
+  public static void main(String[] args) throws InterruptedException {
+    System.setProperty("java.awt.headless", "true");
+    int ticks = SimulationRunner.argOr(args, 0, 10000);
+    int bullets = SimulationRunner.argOr(args, 1, 1000);
+    int interval = SimulationRunner.argOr(args, 2, 28);
+    int waveSize = SimulationRunner.argOr(args, 3, 3);
+    int shotPeriod = SimulationRunner.argOr(args, 4, 10);
+    MyGame game = new MyGame(500, 300, bullets,
+        new WaveScheduler(interval, Math.min(1, waveSize), waveSize, 50));
+    SimulationRunner runner = new SimulationRunner(game).pressEvery(shotPeriod, ticks, " ");
+    if (args.length > 5 && args[5].equals("parallel")) {
+      runner.parallel(new ParallelTicker());
+    }
+    // the piece lists are recursive, so large runs need a deep stack
+    // run with -Dnbullets.metrics=true to also print the time spent in each tick phase
+    Thread worker = new Thread(null, () -> {
+      System.out.println(runner.run(ticks).summary());
+      if (TickMetrics.enabled) {
+        System.out.print(TickMetrics.snapshot().report());
+      }
+    }, "nbullets-headless", 1L << 30);
+    worker.start();
+    worker.join();
+  }
+
+  // reads the i-th argument as an int, or returns the default
+  static int argOr(String[] args, int i, int otherwise) {
+    if (i < args.length) {
+      return Integer.parseInt(args[i]);
+    }
+    else {
+      return otherwise;
+    }
+  }
+}
+
+//to represent the measurements of a headless run
+class SimulationReport {
+  int ticks;
+  long nanos; // time spent in onTick and onKeyEvent
+  int peakShips;
+  int peakBullets;
+  long allocatedBytes = -1; // -1 if unknown
+  int shipsDestroyed;
+
+  // computes how many ticks were run per second
+  double ticksPerSecond() {
+    if (this.nanos == 0) {
+      return 0;
+    }
+    else {
+      return this.ticks * 1e9 / this.nanos;
+    }
+  }
+
+  // computes the average bytes allocated per tick, or -1 if unknown
+  double bytesPerTick() {
+    if (this.allocatedBytes < 0 || this.ticks == 0) {
+      return -1;
+    }
+    else {
+      return (double) this.allocatedBytes / this.ticks;
+    }
+  }
+
+  // describes this report on one line
+  String summary() {
+    return String.format(
+        "ticks=%d ticks/s=%.1f peakShips=%d peakBullets=%d bytes/tick=%.0f destroyed=%d",
+        this.ticks, this.ticksPerSecond(), this.peakShips, this.peakBullets,
+        this.bytesPerTick(), this.shipsDestroyed);
+  }
+}
@@ -0,0 +1,150 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+//to represent per-phase timing counters for MyGame ticks and frames
+//everything is static because worlds are rebuilt every tick; when disabled
+//the only cost is a single check of the enabled flag per tick
+class TickMetrics {
+  static boolean enabled = Boolean.getBoolean("nbullets.metrics");
+  static boolean jfr = Boolean.getBoolean("nbullets.jfr");
+
+  static final int COLLIDE = 0; // counting destroyed ships
+  static final int SPAWN = 1; // adding ships
+  static final int EXPLODE = 2; // removing hit pieces and adding explosion bullets
+  static final int MOVE = 3;
+  static final int CULL = 4; // removing off screen pieces
+  static final int RENDER = 5; // makeScene, including placeAll
+  static final String[] PHASES = { "collide", "spawn", "explode", "move", "cull", "render" };
+
+  static long[] nanos = new long[TickMetrics.PHASES.length];
+  static long[] calls = new long[TickMetrics.PHASES.length];
+  static long ticks;
+  static int lastShips;
+  static int lastBullets;
+  static int peakShips;
+  static int peakBullets;
+
+  // EFFECT: adds the time since the given start to the given phase,
+  // and returns the current time so the next phase can start from it
+  static long record(int phase, long start) {
+    long now = System.nanoTime();
+    TickMetrics.nanos[phase] += now - start;
+    TickMetrics.calls[phase] += 1;
+    if (TickMetrics.jfr) {
+      TickPhaseEvent event = new TickPhaseEvent();
+      if (event.isEnabled()) {
+        event.phase = TickMetrics.PHASES[phase];
+        event.nanos = now - start;
+        event.commit();
+      }
+    }
+    return now;
+  }
+
+  // EFFECT: records the end of a tick with the given piece counts
+  static void recordTick(int ships, int bullets) {
+    TickMetrics.ticks += 1;
+    TickMetrics.lastShips = ships;
+    TickMetrics.lastBullets = bullets;
+    TickMetrics.peakShips = Math.max(TickMetrics.peakShips, ships);
+    TickMetrics.peakBullets = Math.max(TickMetrics.peakBullets, bullets);
+    if (TickMetrics.jfr) {
+      TickEvent event = new TickEvent();
+      if (event.isEnabled()) {
+        event.ships = ships;
+        event.bullets = bullets;
+        event.commit();
+      }
+    }
+  }
+
+  // EFFECT: clears all the counters
+  static void reset() {
+    TickMetrics.nanos = new long[TickMetrics.PHASES.length];
+    TickMetrics.calls = new long[TickMetrics.PHASES.length];
+    TickMetrics.ticks = 0;
+    TickMetrics.lastShips = 0;
+    TickMetrics.lastBullets = 0;
+    TickMetrics.peakShips = 0;
+    TickMetrics.peakBullets = 0;
+  }
+
+  // copies the current counters
+  static TickSnapshot snapshot() {
+    return new TickSnapshot(TickMetrics.nanos.clone(), TickMetrics.calls.clone(),
+        TickMetrics.ticks, TickMetrics.lastShips, TickMetrics.lastBullets,
+        TickMetrics.peakShips, TickMetrics.peakBullets);
+  }
+}
+
+//to represent the tick metrics at one point in time
+class TickSnapshot {
+  long[] nanos; // per phase, indexed like TickMetrics.PHASES
+  long[] calls;
+  long ticks;
+  int lastShips;
+  int lastBullets;
+  int peakShips;
+  int peakBullets;
+
+  // the constructor
+  TickSnapshot(long[] nanos, long[] calls, long ticks, int lastShips, int lastBullets,
+      int peakShips, int peakBullets) {
+    this.nanos = nanos;
+    this.calls = calls;
+    this.ticks = ticks;
+    this.lastShips = lastShips;
+    this.lastBullets = lastBullets;
+    this.peakShips = peakShips;
+    this.peakBullets = peakBullets;
+  }
+
+  // computes the average nanoseconds spent per call of the given phase
+  double averageNanos(int phase) {
+    if (this.calls[phase] == 0) {
+      return 0;
+    }
+    else {
+      return (double) this.nanos[phase] / this.calls[phase];
+    }
+  }
+
+  // describes this snapshot, one line per phase
+  String report() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("ticks=%d ships=%d (peak %d) bullets=%d (peak %d)%n", this.ticks,
+        this.lastShips, this.peakShips, this.lastBullets, this.peakBullets));
+    for (int phase = 0; phase < TickMetrics.PHASES.length; phase++) {
+      sb.append(String.format("  %-8s calls=%d total=%.3fms avg=%.1fus%n",
+          TickMetrics.PHASES[phase], this.calls[phase], this.nanos[phase] / 1e6,
+          this.averageNanos(phase) / 1e3));
+    }
+    return sb.toString();
+  }
+}
+
+//to represent the JFR event for one phase of a tick
+@Name("nbullets.TickPhase")
+@Label("NBullets Tick Phase")
+@Category("NBullets")
+class TickPhaseEvent extends Event {
+  @Label("Phase")
+  String phase;
+
+  @Label("Nanoseconds")
+  long nanos;
+}
+
+//to represent the JFR event for the end of a tick
+@Name("nbullets.Tick")
+@Label("NBullets Tick")
+@Category("NBullets")
+class TickEvent extends Event {
+  @Label("Ships")
+  int ships;
+
+  @Label("Bullets")
+  int bullets;
+}